@@ -5,9 +5,14 @@ import Post from "../components/Post";
 import CreatePostModal from "../components/CreatePostModal";
 import AuthModal from "../components/AuthModal";
 
+// Posts por página del feed
+const PAGE_SIZE = 20;
+
 const Home = () => {
   const [menuOpen, setMenuOpen] = useState(false);
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [modalOpen, setModalOpen] = useState(false);
   const [authModalOpen, setAuthModalOpen] = useState(false);
   const [user, setUser] = useState(null);
@@ -23,28 +28,33 @@ const Home = () => {
     }
   }, []);
 
-  // Cargar posts
-  // Dentro de Home.jsx, cambia el useEffect de carga de posts por este:
-  useEffect(() => {
+  // Cargar posts por páginas: la primera página del feed la sirve la caché del servidor
+  const loadPosts = (cursor) => {
     const savedUser = localStorage.getItem("user");
     const userId = savedUser ? JSON.parse(savedUser).id : null;
-    
-    const url = userId 
-      ? `https://talkpoint-api.onrender.com/api/posts?userId=${userId}`
-      : "https://talkpoint-api.onrender.com/api/posts";
-    
-    fetch(url)
+
+    const params = new URLSearchParams({ limit: PAGE_SIZE });
+    if (userId) params.set("userId", userId);
+    if (cursor) params.set("before", cursor);
+
+    setLoadingMore(true);
+    fetch(`https://talkpoint-api.onrender.com/api/posts?${params}`)
       .then((res) => {
         if (!res.ok) throw new Error("Error en la red");
         return res.json();
       })
       .then((data) => {
-        console.log("Datos recibidos:", data); // Esto te confirmará en consola que el texto llegó
-        if (Array.isArray(data)) {
-          setPosts(data);
+        if (Array.isArray(data.posts)) {
+          setPosts((current) => (cursor ? [...current, ...data.posts] : data.posts));
+          setNextCursor(data.nextCursor);
         }
       })
-      .catch((err) => console.error("Error al cargar posts:", err));
+      .catch((err) => console.error("Error al cargar posts:", err))
+      .finally(() => setLoadingMore(false));
+  };
+
+  useEffect(() => {
+    loadPosts(null);
   }, []); // Quita 'user' y 'searchParams' de aquí para la primera carga estable
 
   const handlePostCreated = (newPost) => {
@@ -241,6 +251,15 @@ const Home = () => {
             )}
           </React.Fragment>
         ))}
+        {nextCursor && (
+          <button
+            className="load-more-button"
+            onClick={() => loadPosts(nextCursor)}
+            disabled={loadingMore}
+          >
+            {loadingMore ? "Cargando..." : "Ver más posts"}
+          </button>
+        )}
       </div>
     </>
   );
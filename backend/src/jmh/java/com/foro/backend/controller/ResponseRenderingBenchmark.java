@@ -0,0 +1,160 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.dto.ArticlePreviewView;
+import com.foro.backend.dto.CommentThreadDto;
+import com.foro.backend.dto.PostDto;
+import com.foro.backend.model.Comment;
+import com.foro.backend.model.Post;
+import com.foro.backend.model.User;
+import com.foro.backend.service.JsonFragments;
+import com.foro.backend.service.LikeService;
+import com.foro.backend.service.LikeWriteBehindBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.util.RawValue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Caminos calientes de las respuestas, sin base de datos: posts del feed, montaje de hilos de
+// comentarios, previews de artículos y el JSON completo de un feed de 50 posts.
+// Throughput y tiempo medio por operación; con -prof gc (por defecto en jmh.args) también la
+// tasa de asignación. Se lanza con
+//   mvn -Pjmh test-compile exec:exec
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="ResponseRenderingBenchmark.feedJson -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseRenderingBenchmark {
+
+	private static final int FEED_SIZE = 50;
+	private static final int AUTHORS = 20;
+	private static final int THREADS = 40;
+	private static final int REPLIES_PER_THREAD = 4;
+	private static final int REPLY_LIMIT = 3;
+
+	private final ObjectMapper mapper = JsonMapper.builder().build();
+
+	private PostController postController;
+	private CommentController commentController;
+	private ArticleController articleController;
+
+	private List<Post> feed;
+	private List<Comment> comments;
+	private List<ArticlePreviewView> articleRows;
+
+	@Setup
+	public void setUp() {
+		JsonFragments fragments = new JsonFragments(mapper);
+		// Solo se usan los métodos de montaje: sin repositorios y con el write-behind apagado
+		LikeWriteBehindBuffer writeBehind = new LikeWriteBehindBuffer(null, null, null, null, false, 10_000, 64, 1);
+		LikeService likeService = new LikeService(null, null, null, writeBehind, null, null);
+		postController = new PostController(null, null, null, likeService, null, fragments, null, null, null, null, null);
+		commentController = new CommentController(null, null, null, fragments, null, null, null);
+		articleController = new ArticleController(null, null, fragments, null, null, null, null, null, null);
+
+		List<User> authors = syntheticAuthors();
+		feed = syntheticFeed(authors);
+		comments = syntheticComments(authors, feed.get(0));
+		articleRows = syntheticArticleRows();
+	}
+
+	@Benchmark
+	public List<PostDto> postResponses() {
+		List<PostDto> response = new ArrayList<>(feed.size());
+		for (Post post : feed) {
+			response.add(postController.buildPostResponse(post, false));
+		}
+		return response;
+	}
+
+	@Benchmark
+	public List<CommentThreadDto> commentThreads() {
+		return commentController.assembleThreads(comments, REPLY_LIMIT);
+	}
+
+	// Previews ya en la caché de fragmentos (el caso normal de los listados)
+	@Benchmark
+	public List<RawValue> articlePreviews() {
+		return articleController.buildPreviewList(articleRows);
+	}
+
+	@Benchmark
+	public byte[] feedJson() {
+		return mapper.writeValueAsBytes(postResponses());
+	}
+
+	private static List<User> syntheticAuthors() {
+		List<User> authors = new ArrayList<>();
+		for (long id = 1; id <= AUTHORS; id++) {
+			User user = new User("usuario" + id, "usuario" + id + "@foro.com", "secreto");
+			if (id % 2 == 0) {
+				user.setDisplayName("Usuario número " + id);
+			}
+			user.setAvatar("https://talkpoint-api.onrender.com/uploads/avatar_" + id + ".png");
+			ReflectionTestUtils.setField(user, "id", id);
+			authors.add(user);
+		}
+		return authors;
+	}
+
+	private static List<Post> syntheticFeed(List<User> authors) {
+		List<Post> feed = new ArrayList<>();
+		for (long id = 1; id <= FEED_SIZE; id++) {
+			Post post = new Post("Título del post " + id,
+				"Contenido de ejemplo del post número " + id + ", con un par de frases para que se parezca a uno real. "
+					+ "La mayoría de posts del foro tienen entre doscientos y quinientos caracteres.",
+				(int) id * 3, (int) id, id % 3 == 0 ? null : "https://talkpoint-api.onrender.com/uploads/post_" + id + ".jpg");
+			post.setUser(authors.get((int) (id % authors.size())));
+			ReflectionTestUtils.setField(post, "id", id);
+			feed.add(post);
+		}
+		return feed;
+	}
+
+	private static List<Comment> syntheticComments(List<User> authors, Post post) {
+		LocalDateTime start = LocalDateTime.of(2025, 1, 1, 12, 0);
+		List<Comment> comments = new ArrayList<>();
+		long id = 1;
+		for (int thread = 0; thread < THREADS; thread++) {
+			Comment main = new Comment("Comentario " + thread, post, authors.get(thread % authors.size()));
+			main.setCreatedAt(start.plusMinutes(thread * 10L));
+			ReflectionTestUtils.setField(main, "id", id++);
+			comments.add(main);
+			for (int reply = 0; reply < REPLIES_PER_THREAD; reply++) {
+				Comment answer = new Comment("Respuesta " + reply, post, authors.get((thread + reply + 1) % authors.size()), main);
+				answer.setCreatedAt(main.getCreatedAt().plusMinutes(reply + 1));
+				ReflectionTestUtils.setField(answer, "id", id++);
+				comments.add(answer);
+			}
+		}
+		return comments;
+	}
+
+	private static List<ArticlePreviewView> syntheticArticleRows() {
+		LocalDateTime start = LocalDateTime.of(2025, 1, 1, 12, 0);
+		List<ArticlePreviewView> rows = new ArrayList<>();
+		for (long id = 1; id <= FEED_SIZE; id++) {
+			rows.add(new ArticlePreviewView(id, "Artículo " + id, "Resumen del artículo " + id,
+				"https://talkpoint-api.onrender.com/uploads/cover_" + id + ".jpg", "Ciencia",
+				start.plusHours(id), id % 2 == 0 ? "Redacción" : null, "admin"));
+		}
+		return rows;
+	}
+}
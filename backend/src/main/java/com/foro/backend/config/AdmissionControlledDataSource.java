@@ -0,0 +1,122 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.DbAdmission;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// DataSource que pide un permiso a DbAdmission antes de sacar una conexión del pool y lo
+// devuelve al cerrarla. Solo en hilos de petición HTTP: el arranque, los @Scheduled y el volcado
+// de likes van directos al pool. Una segunda conexión del mismo hilo tampoco espera, porque ya
+// tiene un permiso y esperar otro podría bloquearlo contra sí mismo.
+public class AdmissionControlledDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    static final String PRIORITY_ATTRIBUTE = AdmissionControlledDataSource.class.getName() + ".priority";
+
+    private final ObjectProvider<DbAdmission> admission;
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+
+    public AdmissionControlledDataSource(DataSource target, ObjectProvider<DbAdmission> admission) {
+        super(target);
+        this.admission = admission;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return admitted(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return admitted(() -> super.getConnection(username, password));
+    }
+
+    // Para que al parar la aplicación se siga cerrando el pool que hay debajo
+    @Override
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        while (!(target instanceof AutoCloseable) && target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        if (target instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private Connection admitted(ConnectionSource source) throws SQLException {
+        DbAdmission.Priority priority = currentPriority();
+        if (priority == null || held.get()[0] > 0) {
+            return source.open();
+        }
+
+        DbAdmission gate = admission.getObject();
+        gate.acquire(priority);
+        Connection connection;
+        try {
+            connection = source.open();
+        } catch (SQLException | RuntimeException e) {
+            gate.release();
+            throw e;
+        }
+        held.get()[0]++;
+        return releasingOnClose(connection, gate);
+    }
+
+    // null fuera de una petición HTTP
+    private static DbAdmission.Priority currentPriority() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) {
+            return null;
+        }
+        Object explicit = servlet.getAttribute(PRIORITY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (explicit instanceof DbAdmission.Priority priority) {
+            return priority;
+        }
+        String method = servlet.getRequest().getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? DbAdmission.Priority.READ : DbAdmission.Priority.WRITE;
+    }
+
+    // El permiso se devuelve una sola vez, en el primer close()
+    private Connection releasingOnClose(Connection connection, DbAdmission gate) {
+        int[] counter = held.get();
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                    try {
+                        connection.close();
+                    } finally {
+                        if (!closed[0]) {
+                            closed[0] = true;
+                            counter[0]--;
+                            gate.release();
+                        }
+                    }
+                    return null;
+                }
+                if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                    return proxy == args[0];
+                }
+                if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                    return System.identityHashCode(proxy);
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+}
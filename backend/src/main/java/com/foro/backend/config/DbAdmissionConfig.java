@@ -0,0 +1,95 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.DbAdmission;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Admisión a la base de datos (foro.db.admission.enabled): envuelve el DataSource, aplica
+// @DbPriority de cada endpoint y convierte los rechazos de DbAdmission en 503 + Retry-After
+@Configuration
+@ConditionalOnProperty(name = "foro.db.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class DbAdmissionConfig implements WebMvcConfigurer {
+
+    @Bean
+    static BeanPostProcessor admissionControlledDataSource(ObjectProvider<DbAdmission> admission) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmissionControlledDataSource)) {
+                    return new AdmissionControlledDataSource(dataSource, admission);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod method) {
+                    DbPriority priority = method.getMethodAnnotation(DbPriority.class);
+                    if (priority == null) {
+                        priority = method.getBeanType().getAnnotation(DbPriority.class);
+                    }
+                    if (priority != null) {
+                        request.setAttribute(AdmissionControlledDataSource.PRIORITY_ATTRIBUTE, priority.value());
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+        // Antes que los de Spring: el rechazo llega envuelto en excepciones de JPA/transacciones
+        resolvers.add(0, (request, response, handler, ex) -> {
+            DbAdmission.SaturatedException saturated = findSaturated(ex);
+            if (saturated == null || response.isCommitted()) {
+                return null;
+            }
+            try {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(saturated.getRetryAfterSeconds()));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("{\"error\":\"Servidor ocupado, inténtalo de nuevo en unos segundos\"}");
+            } catch (IOException e) {
+                return null;
+            }
+            return new ModelAndView();
+        });
+    }
+
+    private static DbAdmission.SaturatedException findSaturated(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DbAdmission.SaturatedException saturated) {
+                return saturated;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+}
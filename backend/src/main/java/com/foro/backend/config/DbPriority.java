@@ -0,0 +1,17 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.DbAdmission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Prioridad de un endpoint en DbAdmission cuando no coincide con su método HTTP
+// (por defecto GET/HEAD son lecturas y el resto escrituras)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DbPriority {
+
+    DbAdmission.Priority value();
+}
@@ -0,0 +1,17 @@
+package com.foro.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Ajustes propios que lee Hibernate al montar el mapeo (los generadores de ids no son beans)
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer pooledIdBlockSize(
+            @Value("${foro.ids.block-size:" + PooledIdGenerator.DEFAULT_BLOCK_SIZE + "}") int blockSize) {
+        return properties -> properties.put(PooledIdGenerator.BLOCK_SIZE_SETTING, blockSize);
+    }
+}
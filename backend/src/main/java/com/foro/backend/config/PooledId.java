@@ -0,0 +1,15 @@
+package com.foro.backend.config;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Id de secuencia "<tabla>_seq" repartido en bloques de foro.ids.block-size (PooledIdGenerator)
+@IdGeneratorType(PooledIdGenerator.class)
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PooledId {
+}
@@ -0,0 +1,34 @@
+package com.foro.backend.config;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+// Secuencia por entidad con optimizador pooled-lo: un viaje a la secuencia (o a la tabla que la
+// emula en MySQL) reserva block-size ids, que se reparten en memoria. El valor leído es el primer
+// id del bloque, así que basta con que la secuencia vaya por delante del máximo id de la tabla.
+// Al cambiar block-size en una base de datos con secuencias reales hay que cambiar también su
+// INCREMENT; en MySQL lo aplica Hibernate al actualizar la tabla.
+public class PooledIdGenerator extends SequenceStyleGenerator {
+
+    public static final String BLOCK_SIZE_SETTING = "foro.ids.block-size";
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    public PooledIdGenerator(PooledId config, Member member, GeneratorCreationContext context) {
+    }
+
+    @Override
+    public void configure(GeneratorCreationContext context, Properties params) throws MappingException {
+        int blockSize = context.getServiceRegistry().requireService(ConfigurationService.class)
+            .getSetting(BLOCK_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_BLOCK_SIZE);
+        params.put(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.put(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(context, params);
+    }
+}
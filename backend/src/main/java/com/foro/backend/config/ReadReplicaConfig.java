@@ -0,0 +1,60 @@
+package com.foro.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Réplica de lectura (foro.datasource.replica.url): sustituye al DataSource de Spring Boot por
+// primario (spring.datasource.*) + réplica (foro.datasource.replica.*) detrás de
+// ReadWriteRoutingDataSource. Sin esa propiedad todo sigue yendo a un único pool.
+@Configuration
+@ConditionalOnProperty(name = "foro.datasource.replica.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    DataSource dataSource(DataSourceProperties primaryProperties, Environment environment,
+                          @Value("${foro.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        // Usuario, contraseña y driver de la réplica: si no se dan, los del primario
+        DataSourceProperties replicaProperties = binder.bind("foro.datasource.replica", DataSourceProperties.class)
+            .orElseGet(DataSourceProperties::new);
+        if (replicaProperties.getUsername() == null) {
+            replicaProperties.setUsername(primaryProperties.determineUsername());
+            replicaProperties.setPassword(primaryProperties.determinePassword());
+        }
+        if (replicaProperties.getDriverClassName() == null) {
+            replicaProperties.setDriverClassName(primaryProperties.getDriverClassName());
+        }
+        HikariDataSource replica = replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("foro.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, readYourWritesMs));
+    }
+
+    // Cada transacción devuelve su conexión al terminar: con OSIV la sesión viviría toda la
+    // petición y las transacciones posteriores reutilizarían la conexión de la primera
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+            "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
@@ -0,0 +1,125 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.SessionTokenService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Envía las transacciones de solo lectura de las peticiones GET/HEAD a la réplica y todo lo
+// demás al primario.
+// Va detrás de un LazyConnectionDataSourceProxy, así que se decide al ejecutar la primera
+// sentencia, cuando ya se sabe si la transacción es readOnly.
+// "Lee lo que escribes": tras confirmar una escritura, las lecturas del mismo cliente (usuario del token o userId de
+// la petición o, si no lo hay, su IP) van al primario durante read-your-writes-ms, mientras la
+// réplica se pone al día.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    // Por encima de esto se purgan las marcas caducadas
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long readYourWritesMs;
+    // Cliente -> instante (ms) hasta el que sus lecturas van al primario
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long readYourWritesMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesMs = readYourWritesMs;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return Target.PRIMARY;
+        }
+        List<String> clients = clientsOf(request);
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        markWrite(clients);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        // Las lecturas de una petición que modifica algo (findById + save) no pueden ir con retraso
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return Target.PRIMARY;
+        }
+        long now = System.currentTimeMillis();
+        for (String client : clients) {
+            Long until = recentWriters.get(client);
+            if (until != null && until > now) {
+                return Target.PRIMARY;
+            }
+        }
+        return Target.REPLICA;
+    }
+
+    // Fuera de una petición HTTP (arranque, @Scheduled, volcados) todo va al primario
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest() : null;
+    }
+
+    // Cliente de la petición: su userId, si lo lleva, y su IP
+    private static List<String> clientsOf(HttpServletRequest request) {
+        List<String> clients = new ArrayList<>(2);
+        String userId = request.getAttribute(SessionTokenFilter.CLAIMS) instanceof SessionTokenService.Claims claims
+            ? String.valueOf(claims.userId())
+            : request.getParameter("userId");
+        if (userId == null && request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables) {
+            Object variable = variables.get("userId");
+            userId = variable != null ? variable.toString() : null;
+        }
+        if (userId != null) {
+            clients.add("user:" + userId);
+        }
+        clients.add("addr:" + request.getRemoteAddr());
+        return clients;
+    }
+
+    private void markWrite(List<String> clients) {
+        long now = System.currentTimeMillis();
+        if (recentWriters.size() > MAX_TRACKED_CLIENTS) {
+            recentWriters.values().removeIf(until -> until <= now);
+        }
+        for (String client : clients) {
+            recentWriters.put(client, now + readYourWritesMs);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        } finally {
+            if (primary instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
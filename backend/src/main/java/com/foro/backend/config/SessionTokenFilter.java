@@ -0,0 +1,51 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.SessionTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Lee "Authorization: Bearer <token>" y deja los claims verificados en el atributo CLAIMS,
+// de donde los toman los endpoints con @RequestAttribute. Un token inválido o caducado en
+// una petición que modifica algo es un 401; en GET/HEAD se sigue como anónimo.
+@Component
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    public static final String CLAIMS = "com.foro.backend.config.SessionTokenFilter.claims";
+
+    private static final String BEARER = "Bearer ";
+
+    private final SessionTokenService sessionTokens;
+
+    public SessionTokenFilter(SessionTokenService sessionTokens) {
+        this.sessionTokens = sessionTokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            SessionTokenService.Claims claims = sessionTokens.verify(header.substring(BEARER.length()).trim());
+            if (claims != null) {
+                request.setAttribute(CLAIMS, claims);
+            } else if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())
+                    && !"OPTIONS".equals(request.getMethod())) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("{\"error\":\"Sesión caducada o no válida\"}");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
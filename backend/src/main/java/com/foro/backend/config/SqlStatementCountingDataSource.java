@@ -0,0 +1,159 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.SqlStatementStats;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+// DataSource que cuenta y cronometra cada sentencia ejecutada dentro de una petición HTTP en su
+// SqlStatementStats.RequestCounter (atributo COUNTER_ATTRIBUTE), junto con las filas que se leen
+// de sus ResultSet. Cubre JPA y JdbcTemplate por igual; un executeBatch cuenta como una sentencia,
+// que es un viaje a la base de datos. El tiempo es el de la llamada execute*, sin leer las filas.
+// La "forma" de la sentencia es su SQL con ? en lugar de los valores: la de un PreparedStatement
+// ya lo es y en las de Statement se quitan los literales.
+public class SqlStatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public static final String COUNTER_ATTRIBUTE = SqlStatementCountingDataSource.class.getName() + ".counter";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public SqlStatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    // Para que al parar la aplicación se siga cerrando el pool que hay debajo
+    @Override
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        while (!(target instanceof AutoCloseable) && target instanceof DelegatingDataSource delegating) {
+            target = delegating.getTargetDataSource();
+        }
+        if (target instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    // null fuera de una petición HTTP
+    static SqlStatementStats.RequestCounter currentCounter() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(COUNTER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof SqlStatementStats.RequestCounter counter
+            ? counter
+            : null;
+    }
+
+    private Connection counting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if (isObjectMethod(method)) {
+                    return objectMethod(proxy, method, args);
+                }
+                Object result = invoke(connection, method, args);
+                if (result instanceof Statement statement) {
+                    String sql = method.getName().startsWith("prepare") && args != null && args.length > 0 && args[0] instanceof String text
+                        ? text
+                        : null;
+                    return countingStatement(statement, (Connection) proxy, sql);
+                }
+                return result;
+            });
+    }
+
+    private static Statement countingStatement(Statement statement, Connection connection, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class
+            : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                if (isObjectMethod(method)) {
+                    return objectMethod(proxy, method, args);
+                }
+                if (method.getName().equals("getConnection") && method.getParameterCount() == 0) {
+                    return connection;
+                }
+                if (method.getName().equals("getResultSet") && method.getParameterCount() == 0) {
+                    return countingRows((ResultSet) invoke(statement, method, args), currentCounter());
+                }
+                SqlStatementStats.RequestCounter counter = method.getName().startsWith("execute") ? currentCounter() : null;
+                if (counter == null) {
+                    return invoke(statement, method, args);
+                }
+                long start = System.nanoTime();
+                try {
+                    Object result = invoke(statement, method, args);
+                    return result instanceof ResultSet resultSet ? countingRows(resultSet, counter) : result;
+                } finally {
+                    String shape = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String text ? shapeOf(text)
+                        : "(lote de sentencias)";
+                    counter.record(shape, System.nanoTime() - start);
+                }
+            });
+    }
+
+    private static ResultSet countingRows(ResultSet resultSet, SqlStatementStats.RequestCounter counter) {
+        if (resultSet == null || counter == null) {
+            return resultSet;
+        }
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+                if (isObjectMethod(method)) {
+                    return objectMethod(proxy, method, args);
+                }
+                Object result = invoke(resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    counter.recordRow();
+                }
+                return result;
+            });
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        return (method.getName().equals("equals") && method.getParameterCount() == 1)
+            || (method.getName().equals("hashCode") && method.getParameterCount() == 0);
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.foro.backend.config;
+
+import com.foro.backend.service.SqlStatementStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.Locale;
+
+// Sentencias SQL por petición (foro.sql.stats.enabled): envuelve el DataSource para contarlas y
+// registra cada petición en SqlStatementStats con su endpoint ("GET /api/posts/{postId}/comments").
+// Con foro.sql.stats.header (pensado para desarrollo) la respuesta lleva además X-SQL-Statements,
+// X-SQL-Rows y X-SQL-Time-Ms; para poder ponerlas al final se guarda el cuerpo en memoria antes
+// de enviarlo.
+@Configuration
+@ConditionalOnProperty(name = "foro.sql.stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementStatsConfig {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+
+    @Bean
+    static BeanPostProcessor sqlStatementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlStatementCountingDataSource)) {
+                    return new SqlStatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<OncePerRequestFilter> sqlStatementStatsFilter(SqlStatementStats stats,
+                                                                         @Value("${foro.sql.stats.header:false}") boolean header) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                SqlStatementStats.RequestCounter counter = new SqlStatementStats.RequestCounter();
+                request.setAttribute(SqlStatementCountingDataSource.COUNTER_ATTRIBUTE, counter);
+                ContentCachingResponseWrapper buffered = header ? new ContentCachingResponseWrapper(response) : null;
+                try {
+                    chain.doFilter(request, buffered != null ? buffered : response);
+                } finally {
+                    request.removeAttribute(SqlStatementCountingDataSource.COUNTER_ATTRIBUTE);
+                    stats.record(endpointOf(request), counter);
+                    if (buffered != null) {
+                        buffered.setHeader(STATEMENTS_HEADER, String.valueOf(counter.getStatements()));
+                        buffered.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.2f", counter.getMillis()));
+                        buffered.setHeader(ROWS_HEADER, String.valueOf(counter.getRows()));
+                        buffered.copyBodyToResponse();
+                    }
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        // Por fuera del resto de filtros propios, para contar también lo que hagan ellos
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    // Patrón de la ruta que atendió la petición; sin controlador (404, /uploads) se agrupa aparte
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "(sin controlador)");
+    }
+}
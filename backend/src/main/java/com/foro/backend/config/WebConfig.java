@@ -1,17 +1,57 @@
 package com.foro.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final Path uploadDir;
+    private final boolean optimizedUploads;
+
+    public WebConfig(@Value("${foro.uploads.dir:uploads}") String uploadDir,
+                     @Value("${foro.uploads.optimized-serving:true}") boolean optimizedUploads) {
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.optimizedUploads = optimizedUploads;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Con el modo optimizado /uploads/** lo sirve UploadController
+        if (optimizedUploads) {
+            return;
+        }
+
+        Resource originals = new FileSystemResource(uploadDir.toString() + "/");
+
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations(originals);
+
+        // /uploads/variants/<variante>/<fichero>: mientras la variante no esté generada, el original
+        registry.addResourceHandler("/uploads/variants/**")
+                .addResourceLocations(new FileSystemResource(uploadDir.resolve("variants").toString() + "/"))
+                .resourceChain(false)
+                .addResolver(new PathResourceResolver() {
+                    @Override
+                    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+                        Resource variant = super.getResource(resourcePath, location);
+                        if (variant != null) {
+                            return variant;
+                        }
+                        int slash = resourcePath.indexOf('/');
+                        return slash < 0 ? null : super.getResource(resourcePath.substring(slash + 1), originals);
+                    }
+                });
     }
 
     @Override
@@ -25,4 +65,4 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,38 @@
 package com.foro.backend.controller;
 
+import com.foro.backend.config.SessionTokenFilter;
+import com.foro.backend.dto.ArticleDto;
+import com.foro.backend.dto.ArticlePageDto;
+import com.foro.backend.dto.ArticlePreviewDto;
+import com.foro.backend.dto.ArticlePreviewView;
+import com.foro.backend.dto.ArticleSearchPageDto;
+import com.foro.backend.dto.CategoryStatsDto;
+import com.foro.backend.event.ArticleCreatedEvent;
+import com.foro.backend.event.ArticleDeletedEvent;
 import com.foro.backend.model.Article;
+import com.foro.backend.model.User;
 import com.foro.backend.repository.ArticleRepository;
 import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.ArticleSearchIndex;
+import com.foro.backend.service.CategoryRegistry;
+import com.foro.backend.service.ImageVariant;
+import com.foro.backend.service.ImageVariantService;
+import com.foro.backend.service.JsonFragments;
+import com.foro.backend.service.SessionTokenService;
+import com.foro.backend.service.UploadStorageService;
+import com.foro.backend.util.Cursor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.util.RawValue;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,33 +42,110 @@ public class ArticleController {
 
     private final ArticleRepository articleRepository;
     private final UserRepository userRepository;
-    private final String UPLOAD_DIR = "uploads/";
+    private final JsonFragments jsonFragments;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadStorageService uploadStorage;
+    private final ImageVariantService imageVariants;
+    private final ArticleSearchIndex searchIndex;
+    private final CategoryRegistry categoryRegistry;
+    private final SessionTokenService sessionTokens;
 
-    public ArticleController(ArticleRepository articleRepository, UserRepository userRepository) {
+    // Tamaño de página de listados y búsqueda
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public ArticleController(ArticleRepository articleRepository, UserRepository userRepository,
+                             JsonFragments jsonFragments, ApplicationEventPublisher eventPublisher,
+                             UploadStorageService uploadStorage, ImageVariantService imageVariants,
+                             ArticleSearchIndex searchIndex, CategoryRegistry categoryRegistry,
+                             SessionTokenService sessionTokens) {
         this.articleRepository = articleRepository;
         this.userRepository = userRepository;
+        this.jsonFragments = jsonFragments;
+        this.eventPublisher = eventPublisher;
+        this.uploadStorage = uploadStorage;
+        this.imageVariants = imageVariants;
+        this.searchIndex = searchIndex;
+        this.categoryRegistry = categoryRegistry;
+        this.sessionTokens = sessionTokens;
     }
 
     // GET - Obtener todos los artículos publicados
+    // Con ?before=<cursor>&limit=N devuelve una página: { articles, nextCursor }
     @GetMapping
-    public List<Map<String, Object>> getAllArticles() {
-        return articleRepository.findByPublishedTrueOrderByCreatedAtDesc()
-            .stream()
-            .map(this::buildArticlePreview)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getAllArticles(
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+
+        if (before == null && limit == null) {
+            return ResponseEntity.ok(buildPreviewList(articleRepository.findPreviews()));
+        }
+        return previewPage(before, limit,
+            fetch -> articleRepository.findPreviews(fetch),
+            (position, fetch) -> articleRepository.findPreviewsBefore(position.createdAt(), position.id(), fetch),
+            null);
     }
 
-    // GET - Obtener artículos por categoría
+    // GET - Obtener artículos por categoría (mismo modo cursor)
+    // Las páginas recientes salen de CategoryRegistry y de las previews en caché
     @GetMapping("/category/{category}")
-    public List<Map<String, Object>> getArticlesByCategory(@PathVariable String category) {
-        return articleRepository.findByCategoryAndPublishedTrueOrderByCreatedAtDesc(category)
-            .stream()
-            .map(this::buildArticlePreview)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getArticlesByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+
+        if (before == null && limit == null) {
+            long count = categoryRegistry.count(category);
+            List<Cursor.TimeId> newest = categoryRegistry.newest(category, null, (int) Math.min(count, Integer.MAX_VALUE));
+            if (newest != null) {
+                return ResponseEntity.ok(buildPreviewsById(newest));
+            }
+            return ResponseEntity.ok(buildPreviewList(articleRepository.findPreviewsByCategory(category)));
+        }
+        return previewPage(before, limit,
+            fetch -> articleRepository.findPreviewsByCategory(category, fetch),
+            (position, fetch) -> articleRepository.findPreviewsByCategoryBefore(
+                category, position.createdAt(), position.id(), fetch),
+            (position, fetch) -> categoryRegistry.newest(category, position, fetch));
+    }
+
+    // GET - Buscar en título, resumen y contenido, ordenado por relevancia (índice en memoria)
+    // ?q=texto&limit=N; la siguiente página con ?after=<nextCursor>
+    // Sin transacción: no toca la base de datos, así que no ocupa conexión ni permiso de admisión
+    @GetMapping("/search")
+    public ResponseEntity<?> searchArticles(
+            @RequestParam String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        Float afterScore = null;
+        Long afterId = null;
+        if (after != null) {
+            try {
+                String[] parts = Cursor.decode(after, 2);
+                afterScore = Float.intBitsToFloat(Integer.parseInt(parts[0]));
+                afterId = Long.parseLong(parts[1]);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+            }
+        }
+
+        ArticleSearchIndex.Page page = searchIndex.search(q, afterScore, afterId, pageSize(limit));
+        List<ArticlePreviewDto> articles = page.hits().stream()
+            .map(ArticleSearchIndex.Hit::preview)
             .collect(Collectors.toList());
+        String nextCursor = page.last() != null
+            ? Cursor.encode(Float.floatToIntBits(page.last().score()), page.last().preview().id())
+            : null;
+
+        return ResponseEntity.ok(new ArticleSearchPageDto(articles, page.total(), nextCursor));
     }
 
     // GET - Obtener un artículo completo
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getArticle(@PathVariable Long id) {
         var articleOpt = articleRepository.findById(id);
         
@@ -65,95 +163,180 @@ public class ArticleController {
             @RequestParam("summary") String summary,
             @RequestParam("content") String content,
             @RequestParam("category") String category,
-            @RequestParam("userId") Long userId,
-            @RequestParam(value = "coverImage", required = false) MultipartFile coverImage) {
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "coverImage", required = false) MultipartFile coverImage,
+            @RequestAttribute(name = SessionTokenFilter.CLAIMS, required = false) SessionTokenService.Claims session) {
 
-        // Verificar que el usuario es admin
-        var userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Usuario no encontrado"));
+        // Verificar que el usuario es admin: con token basta el rol firmado
+        Long actingUserId = sessionTokens.actingUser(session, userId);
+        if (actingUserId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Inicia sesión para continuar"));
         }
-
-        if (!"ADMIN".equals(userOpt.get().getRole())) {
+        if (session != null && !session.isAdmin()) {
             return ResponseEntity.status(403).body(Map.of("error", "Solo los administradores pueden crear artículos"));
         }
 
+        User author;
+        if (session != null) {
+            // Con token el rol ya viene firmado: el autor basta como referencia, sin leer el usuario
+            author = userRepository.getReferenceById(actingUserId);
+        } else {
+            var userOpt = userRepository.findById(actingUserId);
+            if (userOpt.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Usuario no encontrado"));
+            }
+            if (!"ADMIN".equals(userOpt.get().getRole())) {
+                return ResponseEntity.status(403).body(Map.of("error", "Solo los administradores pueden crear artículos"));
+            }
+            author = userOpt.get();
+        }
+
         String imagePath = null;
         if (coverImage != null && !coverImage.isEmpty()) {
             try {
-                Path uploadPath = Paths.get(UPLOAD_DIR);
-                if (!Files.exists(uploadPath)) {
-                    Files.createDirectories(uploadPath);
-                }
-
-                String originalFilename = coverImage.getOriginalFilename();
-                String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                String newFilename = "article_" + UUID.randomUUID().toString() + extension;
-
-                Path filePath = uploadPath.resolve(newFilename);
-                Files.copy(coverImage.getInputStream(), filePath);
-
-                imagePath = "https://talkpoint-api.onrender.com/uploads/" + newFilename;
+                UploadStorageService.StoredUpload upload = uploadStorage.store(coverImage);
+                imageVariants.schedule(upload, ImageVariant.FEED);
+                imagePath = upload.url();
+            } catch (UploadStorageService.UnsupportedUploadException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
             } catch (IOException e) {
                 return ResponseEntity.internalServerError().body(Map.of("error", "Error al subir imagen"));
             }
         }
 
-        Article article = new Article(title, summary, content, imagePath, category, userOpt.get());
-        Article saved = articleRepository.save(article);
+        Article article = new Article(title, summary, content, imagePath, category, author);
+        Article saved;
+        try {
+            saved = articleRepository.save(article);
+        } catch (RuntimeException e) {
+            // Sin artículo, nadie usa la portada subida: se suelta su referencia
+            uploadStorage.release(imagePath);
+            throw e;
+        }
+        eventPublisher.publishEvent(new ArticleCreatedEvent(saved.getId()));
 
         return ResponseEntity.ok(buildArticleFull(saved));
     }
 
     // DELETE - Eliminar artículo (solo admins)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteArticle(@PathVariable Long id, @RequestParam Long userId) {
-        var userOpt = userRepository.findById(userId);
-        if (userOpt.isEmpty() || !"ADMIN".equals(userOpt.get().getRole())) {
+    public ResponseEntity<?> deleteArticle(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long userId,
+            @RequestAttribute(name = SessionTokenFilter.CLAIMS, required = false) SessionTokenService.Claims session) {
+        if (!isAdmin(session, userId)) {
             return ResponseEntity.status(403).body(Map.of("error", "No autorizado"));
         }
 
-        articleRepository.deleteById(id);
+        articleRepository.findById(id).ifPresent(article -> {
+            articleRepository.delete(article);
+            uploadStorage.release(article.getCoverImage());
+            eventPublisher.publishEvent(new ArticleDeletedEvent(id, article.getCategory(), article.isPublished()));
+        });
         return ResponseEntity.ok(Map.of("message", "Artículo eliminado"));
     }
 
     // GET - Categorías disponibles
     @GetMapping("/categories")
     public List<String> getCategories() {
-        return Arrays.asList(
-            "Inteligencia Artificial",
-            "Smartphones",
-            "Gaming",
-            "Software",
-            "Hardware",
-            "Redes Sociales",
-            "Ciberseguridad",
-            "Startups"
-        );
+        return categoryRegistry.names();
     }
 
-    // Preview para listados
-    private Map<String, Object> buildArticlePreview(Article article) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", article.getId());
-        map.put("title", article.getTitle());
-        map.put("summary", article.getSummary());
-        map.put("coverImage", article.getCoverImage());
-        map.put("category", article.getCategory());
-        map.put("createdAt", article.getCreatedAt().toString());
-        
-        if (article.getAuthor() != null) {
-            map.put("authorName", article.getAuthor().getDisplayName() != null 
-                ? article.getAuthor().getDisplayName() 
-                : article.getAuthor().getUsername());
+    // GET - Categorías con su número de artículos publicados
+    @GetMapping("/categories/stats")
+    public List<CategoryStatsDto> getCategoryStats() {
+        return categoryRegistry.counts().entrySet().stream()
+            .map(entry -> new CategoryStatsDto(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+    }
+
+    // Con token se decide con el rol firmado, sin consultar; sin él, con el rol guardado del userId
+    private boolean isAdmin(SessionTokenService.Claims session, Long userId) {
+        if (session != null) {
+            return session.isAdmin();
         }
-        return map;
+        Long actingUserId = sessionTokens.actingUser(null, userId);
+        return actingUserId != null && userRepository.findById(actingUserId)
+            .map(user -> "ADMIN".equals(user.getRole()))
+            .orElse(false);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Página keyset sobre (createdAt, id); se pide una fila extra para saber si hay más.
+    // inMemory (opcional) da las claves de la página sin consultar; null si no puede
+    private ResponseEntity<?> previewPage(String before, Integer limit,
+                                          Function<Limit, List<ArticlePreviewView>> firstPage,
+                                          BiFunction<Cursor.TimeId, Limit, List<ArticlePreviewView>> nextPage,
+                                          BiFunction<Cursor.TimeId, Integer, List<Cursor.TimeId>> inMemory) {
+        Cursor.TimeId position;
+        try {
+            position = before != null ? Cursor.timeIdOf(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+        }
+
+        int pageSize = pageSize(limit);
+        List<Cursor.TimeId> keys = inMemory != null ? inMemory.apply(position, pageSize + 1) : null;
+        if (keys != null) {
+            boolean hasMore = keys.size() > pageSize;
+            if (hasMore) {
+                keys = keys.subList(0, pageSize);
+            }
+            return ResponseEntity.ok(new ArticlePageDto(buildPreviewsById(keys),
+                hasMore ? Cursor.ofTimeAndId(keys.get(pageSize - 1).createdAt(), keys.get(pageSize - 1).id()) : null));
+        }
+
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ArticlePreviewView> rows = position == null ? firstPage.apply(fetch) : nextPage.apply(position, fetch);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        ArticlePreviewView last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        return ResponseEntity.ok(new ArticlePageDto(buildPreviewList(rows),
+            last != null ? Cursor.ofTimeAndId(last.createdAt(), last.id()) : null));
+    }
+
+    // Previews por id en el orden dado; solo se consultan las que no están en caché
+    private List<RawValue> buildPreviewsById(List<Cursor.TimeId> keys) {
+        Map<Long, RawValue> previews = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Cursor.TimeId key : keys) {
+            RawValue preview = jsonFragments.cachedArticlePreview(key.id());
+            if (preview != null) {
+                previews.put(key.id(), preview);
+            } else {
+                missing.add(key.id());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (ArticlePreviewView row : articleRepository.findPreviewsByIds(missing)) {
+                previews.put(row.id(), jsonFragments.articlePreview(row));
+            }
+        }
+        return keys.stream()
+            .map(key -> previews.get(key.id()))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    // Previews para listados: JSON ya serializado y cacheado por artículo
+    List<RawValue> buildPreviewList(List<ArticlePreviewView> rows) {
+        return rows.stream()
+            .map(jsonFragments::articlePreview)
+            .collect(Collectors.toList());
     }
 
     // Artículo completo
-    private Map<String, Object> buildArticleFull(Article article) {
-        Map<String, Object> map = buildArticlePreview(article);
-        map.put("content", article.getContent());
-        return map;
+    private ArticleDto buildArticleFull(Article article) {
+        return ArticleDto.from(article);
     }
-}
\ No newline at end of file
+}
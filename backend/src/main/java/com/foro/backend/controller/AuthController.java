@@ -1,19 +1,24 @@
 package com.foro.backend.controller;
 
+import com.foro.backend.config.DbPriority;
+import com.foro.backend.dto.UserDto;
+import com.foro.backend.event.UserProfileChangedEvent;
 import com.foro.backend.model.User;
 import com.foro.backend.repository.UserRepository;
-import com.foro.backend.repository.PostRepository;
+import com.foro.backend.service.DbAdmission;
+import com.foro.backend.service.ImageVariant;
+import com.foro.backend.service.ImageVariantService;
+import com.foro.backend.service.SessionTokenService;
+import com.foro.backend.service.UploadStorageService;
+import com.foro.backend.service.UserStatsService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,12 +26,21 @@ import java.util.UUID;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PostRepository postRepository;
-    private final String UPLOAD_DIR = "uploads/";
-
-    public AuthController(UserRepository userRepository, PostRepository postRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadStorageService uploadStorage;
+    private final ImageVariantService imageVariants;
+    private final UserStatsService userStats;
+    private final SessionTokenService sessionTokens;
+
+    public AuthController(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                          UploadStorageService uploadStorage, ImageVariantService imageVariants,
+                          UserStatsService userStats, SessionTokenService sessionTokens) {
         this.userRepository = userRepository;
-        this.postRepository = postRepository;
+        this.eventPublisher = eventPublisher;
+        this.uploadStorage = uploadStorage;
+        this.imageVariants = imageVariants;
+        this.userStats = userStats;
+        this.sessionTokens = sessionTokens;
     }
 
     // POST /api/auth/register
@@ -50,12 +64,14 @@ public class AuthController {
 
         User user = new User(username, email, password);
         User savedUser = userRepository.save(user);
+        userStats.userCreated(savedUser.getId());
 
-        return ResponseEntity.ok(buildUserResponse(savedUser, 0));
+        return ResponseEntity.ok(buildUserResponse(savedUser).withToken(sessionTokens.issue(savedUser)));
     }
 
-    // POST /api/auth/login
+    // POST /api/auth/login (solo lee: compite con las lecturas)
     @PostMapping("/login")
+    @DbPriority(DbAdmission.Priority.READ)
     public ResponseEntity<?> login(@RequestBody Map<String, String> body) {
         String username = body.get("username");
         String password = body.get("password");
@@ -76,13 +92,12 @@ public class AuthController {
             return ResponseEntity.badRequest().body(Map.of("error", "Contraseña incorrecta"));
         }
 
-        int postCount = postRepository.countByUserId(user.getId());
-
-        return ResponseEntity.ok(buildUserResponse(user, postCount));
+        return ResponseEntity.ok(buildUserResponse(user).withToken(sessionTokens.issue(user)));
     }
 
     // GET /api/auth/user/{id}
     @GetMapping("/user/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getUser(@PathVariable Long id) {
         var userOpt = userRepository.findById(id);
         
@@ -91,9 +106,8 @@ public class AuthController {
         }
 
         User user = userOpt.get();
-        int postCount = postRepository.countByUserId(user.getId());
 
-        return ResponseEntity.ok(buildUserResponse(user, postCount));
+        return ResponseEntity.ok(buildUserResponse(user));
     }
 
     // PUT /api/auth/user/{id} - Actualizar perfil
@@ -111,12 +125,12 @@ public class AuthController {
         if (body.containsKey("bio")) user.setBio(body.get("bio"));
         if (body.containsKey("location")) user.setLocation(body.get("location"));
         if (body.containsKey("occupation")) user.setOccupation(body.get("occupation"));
-        if (body.containsKey("avatar")) user.setAvatar(body.get("avatar"));
+        // El avatar solo cambia con POST /avatar, que toma y suelta las referencias de los blobs
 
         User savedUser = userRepository.save(user);
-        int postCount = postRepository.countByUserId(user.getId());
+        eventPublisher.publishEvent(new UserProfileChangedEvent(savedUser.getId()));
 
-        return ResponseEntity.ok(buildUserResponse(savedUser, postCount));
+        return ResponseEntity.ok(buildUserResponse(savedUser));
     }
 
     // POST /api/auth/user/{id}/avatar - Subir foto de perfil
@@ -135,50 +149,39 @@ public class AuthController {
         }
 
         try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            String previousAvatar = user.getAvatar();
+            UploadStorageService.StoredUpload upload = uploadStorage.store(avatar);
+            User savedUser;
+            try {
+                imageVariants.schedule(upload, ImageVariant.AVATAR);
+                user.setAvatar(upload.url());
+                savedUser = userRepository.save(user);
+            } catch (RuntimeException e) {
+                // El usuario sigue con el avatar anterior: la subida nueva no la usa nadie
+                uploadStorage.release(upload.url());
+                throw e;
             }
+            // El avatar anterior deja de estar en uso (si es el mismo, la referencia nueva lo mantiene)
+            uploadStorage.release(previousAvatar);
+            eventPublisher.publishEvent(new UserProfileChangedEvent(savedUser.getId()));
 
-            String originalFilename = avatar.getOriginalFilename();
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String newFilename = "avatar_" + id + "_" + UUID.randomUUID().toString() + extension;
-
-            Path filePath = uploadPath.resolve(newFilename);
-            Files.copy(avatar.getInputStream(), filePath);
-
-            String avatarUrl = "https://talkpoint-api.onrender.com/uploads/" + newFilename;
-            user.setAvatar(avatarUrl);
-            User savedUser = userRepository.save(user);
-
-            int postCount = postRepository.countByUserId(user.getId());
-
-            return ResponseEntity.ok(buildUserResponse(savedUser, postCount));
+            return ResponseEntity.ok(buildUserResponse(savedUser));
 
+        } catch (UploadStorageService.UnsupportedUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body(Map.of("error", "Error al guardar la imagen"));
         }
     }
 
-    private Map<String, Object> buildUserResponse(User user, int postCount) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", user.getId());
-        response.put("username", user.getUsername());
-        response.put("email", user.getEmail());
-        response.put("displayName", user.getDisplayName());
-        response.put("avatar", user.getAvatar());
-        response.put("bio", user.getBio());
-        response.put("location", user.getLocation());
-        response.put("occupation", user.getOccupation());
-        response.put("followers", user.getFollowers());
-        response.put("following", user.getFollowing());
-        response.put("postCount", postCount);
-        response.put("role", user.getRole());
-        return response;
+    // Estadísticas materializadas: una lectura por clave, sin contar posts
+    private UserDto buildUserResponse(User user) {
+        return UserDto.from(user, userStats.get(user.getId()));
     }
     
     // TEMPORAL - Hacer admin (BORRAR DESPUÉS)
     @GetMapping("/make-admin/{username}")
+    @DbPriority(DbAdmission.Priority.WRITE)
     public ResponseEntity<?> makeAdmin(@PathVariable String username) {
         var userOpt = userRepository.findByUsername(username);
         if (userOpt.isEmpty()) {
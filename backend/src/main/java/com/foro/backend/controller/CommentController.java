@@ -1,17 +1,31 @@
 package com.foro.backend.controller;
 
+import com.foro.backend.config.SessionTokenFilter;
+import com.foro.backend.dto.CommentDto;
+import com.foro.backend.dto.CommentPageDto;
+import com.foro.backend.dto.CommentThreadDto;
+import com.foro.backend.dto.ReplyPageDto;
+import com.foro.backend.event.PostsChangedEvent;
 import com.foro.backend.model.Comment;
 import com.foro.backend.model.Post;
 import com.foro.backend.repository.CommentRepository;
 import com.foro.backend.repository.PostRepository;
 import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.JsonFragments;
+import com.foro.backend.service.SessionTokenService;
+import com.foro.backend.service.UserStatsService;
+import com.foro.backend.util.Cursor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -21,31 +35,121 @@ public class CommentController {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final JsonFragments jsonFragments;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserStatsService userStats;
+    private final SessionTokenService sessionTokens;
 
-    public CommentController(CommentRepository commentRepository, PostRepository postRepository, UserRepository userRepository) {
+    // Paginación de comentarios principales y tope de respuestas por hilo
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_REPLY_LIMIT = 5;
+    private static final int MAX_REPLY_LIMIT = 50;
+
+    public CommentController(CommentRepository commentRepository, PostRepository postRepository, UserRepository userRepository,
+                             JsonFragments jsonFragments, ApplicationEventPublisher eventPublisher,
+                             UserStatsService userStats, SessionTokenService sessionTokens) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.jsonFragments = jsonFragments;
+        this.eventPublisher = eventPublisher;
+        this.userStats = userStats;
+        this.sessionTokens = sessionTokens;
     }
 
     // GET - Obtener comentarios de un post (con respuestas anidadas)
+    // Sin parámetros devuelve todos los hilos; con ?before=<cursor>&limit=N&replyLimit=M
+    // devuelve una página de comentarios principales: { comments, nextCursor }
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<?> getComments(@PathVariable Long postId) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getComments(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer replyLimit) {
         var postOpt = postRepository.findById(postId);
         
         if (postOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        // Obtener solo comentarios principales (sin padre)
-        List<Comment> mainComments = commentRepository.findByPostIdAndParentIsNullOrderByCreatedAtDesc(postId);
-        
-        List<Map<String, Object>> response = new ArrayList<>();
-        for (Comment comment : mainComments) {
-            response.add(buildCommentWithReplies(comment));
+        if (before == null && limit == null) {
+            // Una sola consulta con todos los comentarios del post
+            return ResponseEntity.ok(assembleThreads(commentRepository.findThreadByPostId(postId), Integer.MAX_VALUE));
+        }
+
+        Cursor.TimeId position;
+        try {
+            position = before != null ? Cursor.timeIdOf(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+        }
+
+        int pageSize = clamp(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        int repliesPerThread = clamp(replyLimit, DEFAULT_REPLY_LIMIT, MAX_REPLY_LIMIT);
+
+        // Se pide una fila extra para saber si hay más páginas
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Comment> mainComments = position == null
+            ? commentRepository.findTopLevelPage(postId, fetch)
+            : commentRepository.findTopLevelPageBefore(postId, position.createdAt(), position.id(), fetch);
+
+        boolean hasMore = mainComments.size() > pageSize;
+        if (hasMore) {
+            mainComments = mainComments.subList(0, pageSize);
+        }
+
+        // Primeras respuestas de todos los hilos de la página en una sola consulta; el tope por hilo
+        // se aplica en SQL para no cargar hilos enteros
+        List<Comment> page = new ArrayList<>(mainComments);
+        Map<Long, Integer> replyCounts = new HashMap<>();
+        if (!mainComments.isEmpty()) {
+            List<Object[]> replies = commentRepository.findFirstRepliesByParentIds(
+                mainComments.stream().map(Comment::getId).collect(Collectors.toList()), repliesPerThread);
+            for (Object[] row : replies) {
+                Comment reply = (Comment) row[0];
+                page.add(reply);
+                replyCounts.put(reply.getParent().getId(), ((Number) row[1]).intValue());
+            }
+        }
+
+        Comment last = hasMore ? mainComments.get(mainComments.size() - 1) : null;
+        return ResponseEntity.ok(new CommentPageDto(assembleThreads(page, repliesPerThread, replyCounts),
+            last != null ? Cursor.ofTimeAndId(last.getCreatedAt(), last.getId()) : null));
+    }
+
+    // GET - Siguientes respuestas de un hilo: { replies, nextCursor }
+    @GetMapping("/{postId}/comments/{commentId}/replies")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getReplies(
+            @PathVariable Long postId,
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        Cursor.TimeId position;
+        try {
+            position = after != null ? Cursor.timeIdOf(after) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+        }
+
+        int pageSize = clamp(limit, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Comment> replies = position == null
+            ? commentRepository.findRepliesPage(postId, commentId, fetch)
+            : commentRepository.findRepliesAfter(postId, commentId, position.createdAt(), position.id(), fetch);
+
+        boolean hasMore = replies.size() > pageSize;
+        if (hasMore) {
+            replies = replies.subList(0, pageSize);
         }
 
-        return ResponseEntity.ok(response);
+        Comment last = hasMore ? replies.get(replies.size() - 1) : null;
+        return ResponseEntity.ok(new ReplyPageDto(
+            replies.stream().map(this::buildCommentResponse).collect(Collectors.toList()),
+            last != null ? Cursor.ofTimeAndId(last.getCreatedAt(), last.getId()) : null));
     }
 
     // POST - Crear comentario o respuesta
@@ -88,9 +192,10 @@ public class CommentController {
 
         Comment savedComment = commentRepository.save(comment);
 
-        // Actualizar contador de comentarios del post
-        post.setComments(post.getComments() + 1);
-        postRepository.save(post);
+        // Actualizar contador de comentarios del post (en la base de datos, sin leer-modificar-escribir)
+        postRepository.addToComments(postId, 1);
+        userStats.commentsChanged(userId, 1);
+        eventPublisher.publishEvent(new PostsChangedEvent(List.of(postId)));
 
         return ResponseEntity.ok(buildCommentResponse(savedComment));
     }
@@ -100,7 +205,12 @@ public class CommentController {
     public ResponseEntity<?> deleteComment(
             @PathVariable Long postId,
             @PathVariable Long commentId,
-            @RequestParam Long userId) {
+            @RequestParam(required = false) Long userId,
+            @RequestAttribute(name = SessionTokenFilter.CLAIMS, required = false) SessionTokenService.Claims session) {
+        Long actingUserId = sessionTokens.actingUser(session, userId);
+        if (actingUserId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Inicia sesión para continuar"));
+        }
         
         var commentOpt = commentRepository.findById(commentId);
         
@@ -110,62 +220,97 @@ public class CommentController {
 
         Comment comment = commentOpt.get();
 
-        if (!comment.getUser().getId().equals(userId)) {
+        if (!comment.getUser().getId().equals(actingUserId)) {
             return ResponseEntity.status(403).body(Map.of("error", "No puedes eliminar este comentario"));
         }
 
-        // Contar respuestas para actualizar el contador correctamente
-        List<Comment> replies = commentRepository.findByParentIdOrderByCreatedAtAsc(commentId);
-        int totalToDelete = 1 + replies.size();
+        // Autores de las respuestas, para actualizar sus contadores
+        List<Long> replyUserIds = commentRepository.findReplyUserIds(commentId);
 
-        // Eliminar respuestas primero
-        commentRepository.deleteAll(replies);
-
-        // Actualizar contador del post
-        var postOpt = postRepository.findById(postId);
-        if (postOpt.isPresent()) {
-            Post post = postOpt.get();
-            post.setComments(Math.max(0, post.getComments() - totalToDelete));
-            postRepository.save(post);
-        }
+        // Eliminar respuestas primero, todas en una sentencia
+        int totalToDelete = 1 + commentRepository.deleteReplies(commentId);
 
         commentRepository.delete(comment);
 
+        // Actualizar contador del post y los de cada autor
+        postRepository.addToComments(postId, -totalToDelete);
+        Map<Long, Integer> deletedByUser = new HashMap<>();
+        deletedByUser.merge(comment.getUser().getId(), -1, Integer::sum);
+        for (Long replyUserId : replyUserIds) {
+            if (replyUserId != null) {
+                deletedByUser.merge(replyUserId, -1, Integer::sum);
+            }
+        }
+        userStats.commentsChanged(deletedByUser);
+        eventPublisher.publishEvent(new PostsChangedEvent(List.of(postId)));
+
         return ResponseEntity.ok(Map.of("message", "Comentario eliminado"));
     }
 
-    // Construir comentario con sus respuestas
-    private Map<String, Object> buildCommentWithReplies(Comment comment) {
-        Map<String, Object> response = buildCommentResponse(comment);
-        
-        // Obtener respuestas
-        List<Comment> replies = commentRepository.findByParentIdOrderByCreatedAtAsc(comment.getId());
-        List<Map<String, Object>> repliesList = new ArrayList<>();
-        
-        for (Comment reply : replies) {
-            repliesList.add(buildCommentResponse(reply));
-        }
-        
-        response.put("replies", repliesList);
-        return response;
+    // Montar los hilos en una pasada: comentarios principales (más nuevos primero) con sus
+    // respuestas directas (más antiguas primero), como mucho replyLimit por hilo
+    List<CommentThreadDto> assembleThreads(List<Comment> comments, int replyLimit) {
+        return assembleThreads(comments, replyLimit, null);
     }
 
-    private Map<String, Object> buildCommentResponse(Comment comment) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", comment.getId());
-        response.put("content", comment.getContent());
-        response.put("createdAt", comment.getCreatedAt().toString());
-        response.put("parentId", comment.getParent() != null ? comment.getParent().getId() : null);
+    // replyCounts: respuestas totales de cada hilo cuando comments solo trae las primeras (null si vienen todas)
+    List<CommentThreadDto> assembleThreads(List<Comment> comments, int replyLimit, Map<Long, Integer> replyCounts) {
+        List<Comment> mainComments = new ArrayList<>();
+        Map<Long, List<Comment>> repliesByParent = new HashMap<>();
 
-        if (comment.getUser() != null) {
-            Map<String, Object> author = new HashMap<>();
-            author.put("id", comment.getUser().getId());
-            author.put("username", comment.getUser().getUsername());
-            author.put("displayName", comment.getUser().getDisplayName());
-            author.put("avatar", comment.getUser().getAvatar());
-            response.put("author", author);
+        for (Comment comment : comments) {
+            if (comment.getParent() == null) {
+                mainComments.add(comment);
+            } else {
+                repliesByParent.computeIfAbsent(comment.getParent().getId(), id -> new ArrayList<>()).add(comment);
+            }
         }
 
+        // Mismo orden que antes: principales por fecha descendente
+        mainComments.sort((a, b) -> {
+            int byDate = b.getCreatedAt().compareTo(a.getCreatedAt());
+            return byDate != 0 ? byDate : Long.compare(b.getId(), a.getId());
+        });
+
+        List<CommentThreadDto> response = new ArrayList<>();
+        for (Comment comment : mainComments) {
+            List<Comment> replies = repliesByParent.getOrDefault(comment.getId(), List.of());
+            List<Comment> shown = replies.size() > replyLimit ? replies.subList(0, replyLimit) : replies;
+            int total = replyCounts != null ? replyCounts.getOrDefault(comment.getId(), 0) : replies.size();
+            boolean capped = total > shown.size();
+
+            List<CommentDto> repliesList = new ArrayList<>();
+            for (Comment reply : shown) {
+                repliesList.add(buildCommentResponse(reply));
+            }
+
+            Integer replyCount = null;
+            String moreRepliesCursor = null;
+            if (replyLimit != Integer.MAX_VALUE) {
+                Comment lastShown = shown.isEmpty() ? null : shown.get(shown.size() - 1);
+                replyCount = total;
+                moreRepliesCursor = capped && lastShown != null
+                    ? Cursor.ofTimeAndId(lastShown.getCreatedAt(), lastShown.getId())
+                    : null;
+            }
+            response.add(CommentThreadDto.of(buildCommentResponse(comment), repliesList, replyCount, moreRepliesCursor));
+        }
         return response;
     }
-}
\ No newline at end of file
+
+    private int clamp(Integer requested, int defaultValue, int max) {
+        if (requested == null || requested <= 0) {
+            return defaultValue;
+        }
+        return Math.min(requested, max);
+    }
+
+    private CommentDto buildCommentResponse(Comment comment) {
+        return new CommentDto(
+            comment.getId(),
+            comment.getContent(),
+            comment.getCreatedAt().toString(),
+            comment.getParent() != null ? comment.getParent().getId() : null,
+            jsonFragments.author(comment.getUser()));
+    }
+}
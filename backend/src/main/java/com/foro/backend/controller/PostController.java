@@ -1,23 +1,36 @@
 package com.foro.backend.controller;
 
+import com.foro.backend.config.SessionTokenFilter;
+import com.foro.backend.dto.PostDto;
+import com.foro.backend.dto.PostPageDto;
+import com.foro.backend.event.PostCreatedEvent;
 import com.foro.backend.model.Post;
-import com.foro.backend.model.PostLike;
 import com.foro.backend.repository.PostRepository;
 import com.foro.backend.repository.PostLikeRepository;
 import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.FeedCache;
+import com.foro.backend.service.ImageVariant;
+import com.foro.backend.service.ImageVariantService;
+import com.foro.backend.service.JsonFragments;
+import com.foro.backend.service.LikeService;
+import com.foro.backend.service.SessionTokenService;
+import com.foro.backend.service.UploadStorageService;
+import com.foro.backend.service.UserStatsService;
+import com.foro.backend.util.Cursor;
+import com.foro.backend.util.LongHashSet;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,57 +41,136 @@ public class PostController {
     private final PostRepository postRepository;
     private final PostLikeRepository postLikeRepository;
     private final UserRepository userRepository;
-    
-    private final String UPLOAD_DIR = "uploads/";
+    private final LikeService likeService;
+    private final FeedCache feedCache;
+    private final JsonFragments jsonFragments;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadStorageService uploadStorage;
+    private final ImageVariantService imageVariants;
+    private final UserStatsService userStats;
+    private final SessionTokenService sessionTokens;
 
-    public PostController(PostRepository postRepository, PostLikeRepository postLikeRepository, UserRepository userRepository) {
+    // Tamaño de página del feed con cursor
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Máximo de ids por cláusula IN al resolver los likes del usuario
+    private static final int LIKE_LOOKUP_CHUNK = 1000;
+
+    public PostController(PostRepository postRepository, PostLikeRepository postLikeRepository, UserRepository userRepository,
+                          LikeService likeService, FeedCache feedCache, JsonFragments jsonFragments,
+                          ApplicationEventPublisher eventPublisher, UploadStorageService uploadStorage,
+                          ImageVariantService imageVariants, UserStatsService userStats,
+                          SessionTokenService sessionTokens) {
         this.postRepository = postRepository;
         this.postLikeRepository = postLikeRepository;
         this.userRepository = userRepository;
+        this.likeService = likeService;
+        this.feedCache = feedCache;
+        this.jsonFragments = jsonFragments;
+        this.eventPublisher = eventPublisher;
+        this.uploadStorage = uploadStorage;
+        this.imageVariants = imageVariants;
+        this.userStats = userStats;
+        this.sessionTokens = sessionTokens;
     }
 
     // GET - Obtener todos los posts
+    // Con ?before=<cursor>&limit=N devuelve una página keyset: { posts, nextCursor }
     @GetMapping
-    public List<Map<String, Object>> getAllPosts(@RequestParam(required = false) Long userId) {
-        return postRepository.findAllByOrderByIdDesc().stream()
-            .map(post -> buildPostResponse(post, userId))
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getAllPosts(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+
+        if (before == null && limit == null) {
+            // Sin cursor ni límite (clientes antiguos): la lista entera, fuera de la caché para
+            // que su tamaño siga acotado a maxPages páginas
+            return ResponseEntity.ok(buildPostList(postRepository.findAllByOrderByIdDesc(), userId));
+        }
+
+        Long beforeId;
+        try {
+            beforeId = before != null ? Cursor.idOf(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+        }
+
+        int pageSize = pageSize(limit);
+        FeedCache.Key key = new FeedCache.Key(beforeId, pageSize);
+        FeedCache.Page page = feedCache.get(key);
+
+        if (page == null) {
+            long stamp = feedCache.stamp();
+            // Se pide una fila extra para saber si hay más páginas
+            Limit fetch = Limit.of(pageSize + 1);
+            List<Post> posts = beforeId == null
+                ? postRepository.findAllByOrderByIdDesc(fetch)
+                : postRepository.findByIdLessThanOrderByIdDesc(beforeId, fetch);
+            page = buildFeedPage(posts, pageSize);
+            feedCache.put(key, page, stamp);
+        }
+
+        return ResponseEntity.ok(personalizePage(page, userId));
     }
 
-    // GET - Obtener posts de un usuario
+    // GET - Estadísticas de la caché del feed
+    @GetMapping("/feed-cache/stats")
+    public Map<String, Object> getFeedCacheStats() {
+        return feedCache.stats();
+    }
+
+    // GET - Obtener posts de un usuario (mismo modo cursor que el feed)
     @GetMapping("/user/{authorId}")
-    public List<Map<String, Object>> getPostsByUser(@PathVariable Long authorId, @RequestParam(required = false) Long userId) {
-        return postRepository.findByUserIdOrderByIdDesc(authorId).stream()
-            .map(post -> buildPostResponse(post, userId))
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getPostsByUser(
+            @PathVariable Long authorId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+
+        if (before == null && limit == null) {
+            return ResponseEntity.ok(buildPostList(postRepository.findByUserIdOrderByIdDesc(authorId), userId));
+        }
+
+        Long beforeId;
+        try {
+            beforeId = before != null ? Cursor.idOf(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+        }
+
+        int pageSize = pageSize(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<Post> posts = beforeId == null
+            ? postRepository.findByUserIdOrderByIdDesc(authorId, fetch)
+            : postRepository.findByUserIdAndIdLessThanOrderByIdDesc(authorId, beforeId, fetch);
+
+        return ResponseEntity.ok(personalizePage(buildFeedPage(posts, pageSize), userId));
     }
 
-    // POST - Dar/quitar like (toggle)
+    // POST - Dar/quitar like (toggle); el usuario sale del token o, sin él, de ?userId
     @PostMapping("/{postId}/like")
-    public ResponseEntity<?> toggleLike(@PathVariable Long postId, @RequestParam Long userId) {
-        var postOpt = postRepository.findById(postId);
-        
-        if (postOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<?> toggleLike(
+            @PathVariable Long postId,
+            @RequestParam(required = false) Long userId,
+            @RequestAttribute(name = SessionTokenFilter.CLAIMS, required = false) SessionTokenService.Claims session) {
+        Long actingUserId = sessionTokens.actingUser(session, userId);
+        if (actingUserId == null) {
+            return ResponseEntity.status(401).body(Map.of("error", "Inicia sesión para continuar"));
         }
-        
-        Post post = postOpt.get();
-        boolean alreadyLiked = postLikeRepository.existsByUserIdAndPostId(userId, postId);
-        
-        if (alreadyLiked) {
-            // Quitar like
-            var likeOpt = postLikeRepository.findByUserIdAndPostId(userId, postId);
-            likeOpt.ifPresent(postLikeRepository::delete);
-            post.setLikes(Math.max(0, post.getLikes() - 1));
-        } else {
-            // Dar like
-            postLikeRepository.save(new PostLike(userId, postId));
-            post.setLikes(post.getLikes() + 1);
+        if (!postRepository.existsById(postId)) {
+            return ResponseEntity.notFound().build();
         }
         
-        Post savedPost = postRepository.save(post);
+        // Idempotente ante dobles clicks y sin pisar likes concurrentes
+        boolean liked = likeService.toggle(actingUserId, postId);
         
-        return ResponseEntity.ok(buildPostResponse(savedPost, userId));
+        // Releer el post para devolver el contador actualizado
+        return postRepository.findById(postId)
+            .map(post -> ResponseEntity.ok(buildPostResponse(post, liked)))
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     // POST - Crear nuevo post
@@ -93,20 +185,11 @@ public class PostController {
         
         if (image != null && !image.isEmpty()) {
             try {
-                Path uploadPath = Paths.get(UPLOAD_DIR);
-                if (!Files.exists(uploadPath)) {
-                    Files.createDirectories(uploadPath);
-                }
-                
-                String originalFilename = image.getOriginalFilename();
-                String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                String newFilename = UUID.randomUUID().toString() + extension;
-                
-                Path filePath = uploadPath.resolve(newFilename);
-                Files.copy(image.getInputStream(), filePath);
-                
-                imagePath = "https://talkpoint-api.onrender.com/uploads/" + newFilename;
-                
+                UploadStorageService.StoredUpload upload = uploadStorage.store(image);
+                imageVariants.schedule(upload, ImageVariant.FEED);
+                imagePath = upload.url();
+            } catch (UploadStorageService.UnsupportedUploadException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
             } catch (IOException e) {
                 return ResponseEntity.internalServerError().build();
             }
@@ -121,39 +204,99 @@ public class PostController {
             }
         }
         
-        Post savedPost = postRepository.save(newPost);
+        Post savedPost;
+        try {
+            savedPost = postRepository.save(newPost);
+        } catch (RuntimeException e) {
+            // Sin post, nadie usa la imagen subida: se suelta su referencia
+            uploadStorage.release(imagePath);
+            throw e;
+        }
+        if (savedPost.getUser() != null) {
+            userStats.postsChanged(savedPost.getUser().getId(), 1);
+        }
+        eventPublisher.publishEvent(new PostCreatedEvent(savedPost.getId()));
         
-        return ResponseEntity.ok(buildPostResponse(savedPost, userId));
+        return ResponseEntity.ok(buildPostResponse(savedPost, false));
     }
 
-    // Construir respuesta de post
-    private Map<String, Object> buildPostResponse(Post post, Long currentUserId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("id", post.getId());
-        response.put("title", post.getTitle());
-        response.put("content", post.getContent());
-        response.put("likes", post.getLikes());
-        response.put("comments", post.getComments());
-        response.put("img", post.getImg());
-        
-        // Verificar si el usuario actual dio like
-        boolean likedByUser = false;
-        if (currentUserId != null) {
-            likedByUser = postLikeRepository.existsByUserIdAndPostId(currentUserId, post.getId());
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
         }
-        response.put("likedByUser", likedByUser);
-        
-        // Info del autor
-        if (post.getUser() != null) {
-            Map<String, Object> author = new HashMap<>();
-            author.put("id", post.getUser().getId());
-            author.put("username", post.getUser().getUsername());
-            author.put("displayName", post.getUser().getDisplayName());
-            author.put("avatar", post.getUser().getAvatar());
-            response.put("author", author);
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // Página del feed sin datos del usuario (se puede cachear)
+    private FeedCache.Page buildFeedPage(List<Post> posts, int pageSize) {
+        boolean hasMore = posts.size() > pageSize;
+        List<Post> page = hasMore ? posts.subList(0, pageSize) : posts;
+
+        List<PostDto> data = new ArrayList<>(page.size());
+        long[] postIds = new long[page.size()];
+        List<Long> authorIds = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            Post post = page.get(i);
+            data.add(buildPostData(post));
+            postIds[i] = post.getId();
+            if (post.getUser() != null) authorIds.add(post.getUser().getId());
         }
-        
-        return response;
+
+        String nextCursor = hasMore ? Cursor.ofId(postIds[postIds.length - 1]) : null;
+        return new FeedCache.Page(Collections.unmodifiableList(data), postIds,
+            authorIds.stream().mapToLong(Long::longValue).distinct().toArray(), nextCursor);
+    }
+
+    // Respuesta { posts, nextCursor } con likedByUser y los likes pendientes del momento
+    private PostPageDto personalizePage(FeedCache.Page page, Long currentUserId) {
+        List<Long> postIds = new ArrayList<>(page.postIds().length);
+        for (long postId : page.postIds()) postIds.add(postId);
+        LongHashSet likedIds = findLikedPostIds(currentUserId, postIds);
+
+        List<PostDto> posts = new ArrayList<>(page.posts().size());
+        for (PostDto data : page.posts()) {
+            posts.add(withViewer(data, currentUserId, likedIds.contains(data.id())));
+        }
+        return new PostPageDto(posts, page.nextCursor());
+    }
+
+    // Lista de posts con los likes del usuario resueltos en bloque
+    private List<PostDto> buildPostList(List<Post> posts, Long currentUserId) {
+        LongHashSet likedIds = findLikedPostIds(currentUserId, posts.stream().map(Post::getId).collect(Collectors.toList()));
+        return posts.stream()
+            .map(post -> withViewer(buildPostData(post), currentUserId, likedIds.contains(post.getId())))
+            .collect(Collectors.toList());
+    }
+
+    // Ids de los posts (de esta lista) que el usuario ha likeado
+    private LongHashSet findLikedPostIds(Long currentUserId, List<Long> postIds) {
+        if (currentUserId == null || postIds.isEmpty()) {
+            return new LongHashSet(0);
+        }
+        List<Long> liked = new ArrayList<>();
+        for (int from = 0; from < postIds.size(); from += LIKE_LOOKUP_CHUNK) {
+            List<Long> chunk = postIds.subList(from, Math.min(from + LIKE_LOOKUP_CHUNK, postIds.size()));
+            liked.addAll(postLikeRepository.findLikedPostIds(currentUserId, chunk));
+        }
+        return LongHashSet.of(liked);
+    }
+
+    // Construir respuesta de post
+    PostDto buildPostResponse(Post post, boolean likedByUser) {
+        return buildPostData(post).withViewer(likeService.visibleLikes(post.getId(), post.getLikes()), likedByUser);
+    }
+
+    // Datos del post para un usuario concreto
+    private PostDto withViewer(PostDto data, Long currentUserId, boolean storedLiked) {
+        return data.withViewer(
+            likeService.visibleLikes(data.id(), data.likes()),
+            likeService.visibleLiked(currentUserId, data.id(), storedLiked));
+    }
+
+    // Datos del post que no dependen de quién lo ve; el autor va ya serializado
+    private PostDto buildPostData(Post post) {
+        return new PostDto(post.getId(), post.getTitle(), post.getContent(), post.getLikes(),
+            post.getComments(), post.getImg(), false, jsonFragments.author(post.getUser()));
     }
 
     @PostConstruct
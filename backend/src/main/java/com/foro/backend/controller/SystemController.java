@@ -0,0 +1,44 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.service.CounterReconciliationJob;
+import com.foro.backend.service.DbAdmission;
+import com.foro.backend.service.SqlStatementStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    private final DbAdmission dbAdmission;
+    private final CounterReconciliationJob counterReconciliation;
+    private final SqlStatementStats sqlStatementStats;
+
+    public SystemController(DbAdmission dbAdmission, CounterReconciliationJob counterReconciliation,
+                            SqlStatementStats sqlStatementStats) {
+        this.dbAdmission = dbAdmission;
+        this.counterReconciliation = counterReconciliation;
+        this.sqlStatementStats = sqlStatementStats;
+    }
+
+    // GET - Cola de admisión a la base de datos: profundidad, esperas y rechazos por prioridad
+    @GetMapping("/db-admission/stats")
+    public Map<String, Object> getDbAdmissionStats() {
+        return dbAdmission.stats();
+    }
+
+    // GET - Última reconciliación de contadores de posts: revisados, corregidos y checkpoint
+    @GetMapping("/counter-reconciliation/stats")
+    public Map<String, Object> getCounterReconciliationStats() {
+        return counterReconciliation.stats();
+    }
+
+    // GET - Sentencias SQL y tiempo de base de datos por petición, en histogramas por endpoint
+    @GetMapping("/sql/stats")
+    public Map<String, Object> getSqlStats() {
+        return sqlStatementStats.stats();
+    }
+}
@@ -0,0 +1,172 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.service.UploadMetadataCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Servidor de /uploads/** (foro.uploads.optimized-serving, activo por defecto).
+// Los ficheros subidos no cambian nunca, así que van con Cache-Control immutable y un ETag
+// fuerte del contenido; responde 304 a If-None-Match y rangos de bytes. Con Tomcat el cuerpo
+// sale por sendfile (cero copias) y los metadatos salen de UploadMetadataCache sin tocar disco.
+@RestController
+@RequestMapping("/uploads")
+@ConditionalOnProperty(name = "foro.uploads.optimized-serving", havingValue = "true", matchIfMissing = true)
+public class UploadController {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // Original servido en lugar de una variante pendiente: se revalida en cada uso
+    private static final String REVALIDATE = "public, no-cache";
+
+    // Atributos de Tomcat para enviar un fichero con sendfile en lugar de escribir el cuerpo
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int COPY_BUFFER = 64 * 1024;
+
+    private final UploadMetadataCache metadataCache;
+
+    public UploadController(UploadMetadataCache metadataCache) {
+        this.metadataCache = metadataCache;
+    }
+
+    // GET/HEAD - Fichero subido (original o variante)
+    @RequestMapping(value = "/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String prefix = request.getContextPath() + "/uploads/";
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(prefix)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String relativePath = UriUtils.decode(uri.substring(prefix.length()), StandardCharsets.UTF_8);
+
+        UploadMetadataCache.FileMeta meta = metadataCache.lookup(relativePath);
+        if (meta == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, meta.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, meta.immutable() ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), meta.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = meta.size() - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        // If-Range con otro ETag: el cliente tiene otra versión, se manda entero
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(meta.etag()))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Un solo rango; multipart/byteranges no lo usan los navegadores para imágenes
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                if (meta.size() == 0 || range.getRangeStart(meta.size()) >= meta.size()) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + meta.size());
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                start = range.getRangeStart(meta.size());
+                end = range.getRangeEnd(meta.size());
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + meta.size());
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(meta.contentType().toString());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, meta.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try {
+            copy(meta, start, length, response.getOutputStream());
+        } catch (NoSuchFileException e) {
+            // Borrado por el GC después de cachear los metadatos
+            metadataCache.evict(relativePath);
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sin sendfile (otro contenedor o MockMvc): copia por bloques desde el FileChannel
+    private static void copy(UploadMetadataCache.FileMeta meta, long start, long length, OutputStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(meta.path(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(COPY_BUFFER, length));
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear();
+                if (remaining < buffer.capacity()) {
+                    buffer.limit((int) remaining);
+                }
+                int read = file.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                position += read;
+                remaining -= read;
+            }
+        }
+    }
+}
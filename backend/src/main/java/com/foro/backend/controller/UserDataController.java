@@ -1,18 +1,22 @@
 package com.foro.backend.controller;
 
-import com.foro.backend.model.Comment;
-import com.foro.backend.model.Post;
-import com.foro.backend.model.PostLike;
+import com.foro.backend.dto.LikedPostDto;
+import com.foro.backend.dto.LikedPostPageDto;
+import com.foro.backend.dto.LikedPostView;
+import com.foro.backend.dto.UserCommentDto;
+import com.foro.backend.dto.UserCommentPageDto;
+import com.foro.backend.dto.UserCommentView;
 import com.foro.backend.repository.CommentRepository;
-import com.foro.backend.repository.PostRepository;
 import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.util.Cursor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -20,68 +24,100 @@ import java.util.Map;
 public class UserDataController {
 
     private final PostLikeRepository postLikeRepository;
-    private final PostRepository postRepository;
     private final CommentRepository commentRepository;
 
-    public UserDataController(PostLikeRepository postLikeRepository, PostRepository postRepository, CommentRepository commentRepository) {
+    // Paginación de las listas del perfil
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public UserDataController(PostLikeRepository postLikeRepository, CommentRepository commentRepository) {
         this.postLikeRepository = postLikeRepository;
-        this.postRepository = postRepository;
         this.commentRepository = commentRepository;
     }
 
-    // GET - Obtener posts que le gustaron a un usuario
+    // GET - Obtener posts que le gustaron a un usuario (del like más reciente al más antiguo)
+    // Con ?before=<cursor>&limit=N devuelve una página: { posts, nextCursor }
     @GetMapping("/{userId}/liked-posts")
-    public ResponseEntity<?> getLikedPosts(@PathVariable Long userId) {
-        List<PostLike> likes = postLikeRepository.findByUserId(userId);
-        List<Map<String, Object>> likedPosts = new ArrayList<>();
-
-        for (PostLike like : likes) {
-            var postOpt = postRepository.findById(like.getPostId());
-            if (postOpt.isPresent()) {
-                Post post = postOpt.get();
-                Map<String, Object> postData = new HashMap<>();
-                postData.put("id", post.getId());
-                postData.put("title", post.getTitle());
-                postData.put("content", post.getContent());
-                postData.put("img", post.getImg());
-                postData.put("likes", post.getLikes());
-                postData.put("comments", post.getComments());
-
-                if (post.getUser() != null) {
-                    Map<String, Object> author = new HashMap<>();
-                    author.put("id", post.getUser().getId());
-                    author.put("username", post.getUser().getUsername());
-                    author.put("displayName", post.getUser().getDisplayName());
-                    postData.put("author", author);
-                }
-
-                likedPosts.add(postData);
-            }
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getLikedPosts(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+
+        if (before == null && limit == null) {
+            return ResponseEntity.ok(postLikeRepository.findLikedPosts(userId).stream()
+                .map(LikedPostDto::from)
+                .collect(Collectors.toList()));
+        }
+
+        Cursor.TimeId position;
+        try {
+            position = before != null ? Cursor.timeIdOf(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
         }
 
-        return ResponseEntity.ok(likedPosts);
+        int pageSize = pageSize(limit);
+        // Se pide una fila extra para saber si hay más páginas
+        Limit fetch = Limit.of(pageSize + 1);
+        List<LikedPostView> rows = position == null
+            ? postLikeRepository.findLikedPosts(userId, fetch)
+            : postLikeRepository.findLikedPostsBefore(userId, position.createdAt(), position.id(), fetch);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        LikedPostView last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        return ResponseEntity.ok(new LikedPostPageDto(
+            rows.stream().map(LikedPostDto::from).collect(Collectors.toList()),
+            last != null ? Cursor.ofTimeAndId(last.likedAt(), last.likeId()) : null));
     }
 
-    // GET - Obtener comentarios de un usuario
+    // GET - Obtener comentarios de un usuario (más recientes primero)
+    // Con ?before=<cursor>&limit=N devuelve una página: { comments, nextCursor }
     @GetMapping("/{userId}/comments")
-    public ResponseEntity<?> getUserComments(@PathVariable Long userId) {
-        List<Comment> comments = commentRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        List<Map<String, Object>> response = new ArrayList<>();
-
-        for (Comment comment : comments) {
-            Map<String, Object> commentData = new HashMap<>();
-            commentData.put("id", comment.getId());
-            commentData.put("content", comment.getContent());
-            commentData.put("createdAt", comment.getCreatedAt().toString());
-
-            if (comment.getPost() != null) {
-                commentData.put("postId", comment.getPost().getId());
-                commentData.put("postTitle", comment.getPost().getTitle());
-            }
-
-            response.add(commentData);
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getUserComments(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
+
+        if (before == null && limit == null) {
+            return ResponseEntity.ok(commentRepository.findUserCommentViews(userId).stream()
+                .map(UserCommentDto::from)
+                .collect(Collectors.toList()));
         }
 
-        return ResponseEntity.ok(response);
+        Cursor.TimeId position;
+        try {
+            position = before != null ? Cursor.timeIdOf(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Cursor no válido"));
+        }
+
+        int pageSize = pageSize(limit);
+        Limit fetch = Limit.of(pageSize + 1);
+        List<UserCommentView> rows = position == null
+            ? commentRepository.findUserCommentViews(userId, fetch)
+            : commentRepository.findUserCommentViewsBefore(userId, position.createdAt(), position.id(), fetch);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        UserCommentView last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        return ResponseEntity.ok(new UserCommentPageDto(
+            rows.stream().map(UserCommentDto::from).collect(Collectors.toList()),
+            last != null ? Cursor.ofTimeAndId(last.createdAt(), last.id()) : null));
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.foro.backend.model.Article;
+import com.foro.backend.service.ImageVariant;
+
+// Artículo completo
+public record ArticleDto(
+        Long id,
+        String title,
+        String summary,
+        String coverImage,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String coverImageFeed,
+        String category,
+        String createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String authorName,
+        String content) {
+
+    public static ArticleDto from(Article article) {
+        return new ArticleDto(article.getId(), article.getTitle(), article.getSummary(),
+            article.getCoverImage(), ImageVariant.FEED.urlFor(article.getCoverImage()), article.getCategory(), article.getCreatedAt().toString(),
+            authorName(article), article.getContent());
+    }
+
+    static String authorName(Article article) {
+        if (article.getAuthor() == null) {
+            return null;
+        }
+        return article.getAuthor().getDisplayName() != null
+            ? article.getAuthor().getDisplayName()
+            : article.getAuthor().getUsername();
+    }
+}
@@ -0,0 +1,8 @@
+package com.foro.backend.dto;
+
+import tools.jackson.databind.util.RawValue;
+
+import java.util.List;
+
+// Página de previews de artículos con cursor
+public record ArticlePageDto(List<RawValue> articles, String nextCursor) {}
@@ -0,0 +1,30 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.foro.backend.model.Article;
+import com.foro.backend.service.ImageVariant;
+
+// Preview para listados de artículos
+public record ArticlePreviewDto(
+        Long id,
+        String title,
+        String summary,
+        String coverImage,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String coverImageFeed,
+        String category,
+        String createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String authorName) {
+
+    public static ArticlePreviewDto from(Article article) {
+        return new ArticlePreviewDto(article.getId(), article.getTitle(), article.getSummary(),
+            article.getCoverImage(), ImageVariant.FEED.urlFor(article.getCoverImage()), article.getCategory(), article.getCreatedAt().toString(),
+            ArticleDto.authorName(article));
+    }
+
+    public static ArticlePreviewDto from(ArticlePreviewView row) {
+        String authorName = row.authorDisplayName() != null ? row.authorDisplayName() : row.authorUsername();
+        return new ArticlePreviewDto(row.id(), row.title(), row.summary(),
+            row.coverImage(), ImageVariant.FEED.urlFor(row.coverImage()), row.category(), row.createdAt().toString(),
+            authorName);
+    }
+}
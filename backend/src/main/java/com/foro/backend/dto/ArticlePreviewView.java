@@ -0,0 +1,14 @@
+package com.foro.backend.dto;
+
+import java.time.LocalDateTime;
+
+// Fila de los listados de artículos: columnas de la preview y nombre del autor, sin "content"
+public record ArticlePreviewView(
+        Long id,
+        String title,
+        String summary,
+        String coverImage,
+        String category,
+        LocalDateTime createdAt,
+        String authorDisplayName,
+        String authorUsername) {}
@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.util.List;
+
+// Página de resultados de búsqueda, de más a menos relevante
+public record ArticleSearchPageDto(List<ArticlePreviewDto> articles, int total, String nextCursor) {}
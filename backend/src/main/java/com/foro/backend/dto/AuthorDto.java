@@ -0,0 +1,22 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.foro.backend.model.User;
+import com.foro.backend.service.ImageVariant;
+
+// Bloque "author" de posts y comentarios; "avatarThumb" es el avatar a tamaño de miniatura
+public record AuthorDto(
+        Long id,
+        String username,
+        String displayName,
+        String avatar,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String avatarThumb) {
+
+    public static AuthorDto from(User user) {
+        return of(user.getId(), user.getUsername(), user.getDisplayName(), user.getAvatar());
+    }
+
+    public static AuthorDto of(Long id, String username, String displayName, String avatar) {
+        return new AuthorDto(id, username, displayName, avatar, ImageVariant.AVATAR.urlFor(avatar));
+    }
+}
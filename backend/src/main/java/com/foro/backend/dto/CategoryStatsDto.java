@@ -0,0 +1,4 @@
+package com.foro.backend.dto;
+
+// Categoría con su número de artículos publicados
+public record CategoryStatsDto(String name, long count) {}
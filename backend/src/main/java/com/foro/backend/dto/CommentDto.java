@@ -0,0 +1,12 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import tools.jackson.databind.util.RawValue;
+
+// Comentario o respuesta suelta
+public record CommentDto(
+        Long id,
+        String content,
+        String createdAt,
+        Long parentId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) RawValue author) {}
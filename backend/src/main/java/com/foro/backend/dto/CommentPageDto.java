@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.util.List;
+
+// Página de comentarios principales con cursor
+public record CommentPageDto(List<CommentThreadDto> comments, String nextCursor) {}
@@ -0,0 +1,24 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import tools.jackson.databind.util.RawValue;
+
+import java.util.List;
+
+// Comentario principal con sus respuestas; replyCount y moreRepliesCursor solo en modo paginado
+public record CommentThreadDto(
+        Long id,
+        String content,
+        String createdAt,
+        Long parentId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) RawValue author,
+        List<CommentDto> replies,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer replyCount,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String moreRepliesCursor) {
+
+    public static CommentThreadDto of(CommentDto comment, List<CommentDto> replies, Integer replyCount,
+                                      String moreRepliesCursor) {
+        return new CommentThreadDto(comment.id(), comment.content(), comment.createdAt(), comment.parentId(),
+            comment.author(), replies, replyCount, moreRepliesCursor);
+    }
+}
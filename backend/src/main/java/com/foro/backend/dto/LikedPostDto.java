@@ -0,0 +1,24 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.foro.backend.service.ImageVariant;
+
+// Post de la lista "posts que me gustan"
+public record LikedPostDto(
+        Long id,
+        String title,
+        String content,
+        String img,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String imgFeed,
+        int likes,
+        int comments,
+        @JsonInclude(JsonInclude.Include.NON_NULL) AuthorDto author) {
+
+    public static LikedPostDto from(LikedPostView row) {
+        AuthorDto author = row.authorId() != null
+            ? AuthorDto.of(row.authorId(), row.authorUsername(), row.authorDisplayName(), row.authorAvatar())
+            : null;
+        return new LikedPostDto(row.id(), row.title(), row.content(), row.img(),
+            ImageVariant.FEED.urlFor(row.img()), row.likes(), row.comments(), author);
+    }
+}
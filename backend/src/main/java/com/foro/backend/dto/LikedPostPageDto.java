@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.util.List;
+
+// Página de posts likeados con cursor
+public record LikedPostPageDto(List<LikedPostDto> posts, String nextCursor) {}
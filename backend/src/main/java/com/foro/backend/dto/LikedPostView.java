@@ -0,0 +1,18 @@
+package com.foro.backend.dto;
+
+import java.time.LocalDateTime;
+
+// Fila de la consulta de posts likeados: post + autor + datos del like, en un solo SELECT
+public record LikedPostView(
+        Long id,
+        String title,
+        String content,
+        String img,
+        int likes,
+        int comments,
+        Long authorId,
+        String authorUsername,
+        String authorDisplayName,
+        String authorAvatar,
+        Long likeId,
+        LocalDateTime likedAt) {}
@@ -0,0 +1,28 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.foro.backend.service.ImageVariant;
+import tools.jackson.databind.util.RawValue;
+
+// Post tal y como lo ve un usuario; "author" es JSON ya serializado y compartido entre respuestas.
+// "imgFeed" es la imagen a tamaño de feed (ImageVariant.FEED)
+public record PostDto(
+        Long id,
+        String title,
+        String content,
+        int likes,
+        int comments,
+        String img,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String imgFeed,
+        boolean likedByUser,
+        @JsonInclude(JsonInclude.Include.NON_NULL) RawValue author) {
+
+    public PostDto(Long id, String title, String content, int likes, int comments, String img,
+                   boolean likedByUser, RawValue author) {
+        this(id, title, content, likes, comments, img, ImageVariant.FEED.urlFor(img), likedByUser, author);
+    }
+
+    public PostDto withViewer(int likes, boolean likedByUser) {
+        return new PostDto(id, title, content, likes, comments, img, imgFeed, likedByUser, author);
+    }
+}
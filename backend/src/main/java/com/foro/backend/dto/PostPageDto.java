@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.util.List;
+
+// Página del feed con cursor
+public record PostPageDto(List<PostDto> posts, String nextCursor) {}
@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.util.List;
+
+// Página de respuestas de un hilo con cursor
+public record ReplyPageDto(List<CommentDto> replies, String nextCursor) {}
@@ -0,0 +1,16 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Comentario en el perfil del usuario, con el título del post al que pertenece
+public record UserCommentDto(
+        Long id,
+        String content,
+        String createdAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long postId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String postTitle) {
+
+    public static UserCommentDto from(UserCommentView row) {
+        return new UserCommentDto(row.id(), row.content(), row.createdAt().toString(), row.postId(), row.postTitle());
+    }
+}
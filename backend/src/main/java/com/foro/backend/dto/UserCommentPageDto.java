@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.util.List;
+
+// Página del historial de comentarios con cursor
+public record UserCommentPageDto(List<UserCommentDto> comments, String nextCursor) {}
@@ -0,0 +1,6 @@
+package com.foro.backend.dto;
+
+import java.time.LocalDateTime;
+
+// Fila del historial de comentarios de un usuario: solo las columnas que se muestran
+public record UserCommentView(Long id, String content, LocalDateTime createdAt, Long postId, String postTitle) {}
@@ -0,0 +1,38 @@
+package com.foro.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.foro.backend.model.User;
+import com.foro.backend.model.UserStats;
+import com.foro.backend.service.ImageVariant;
+
+// Perfil de usuario devuelto por /api/auth
+public record UserDto(
+        Long id,
+        String username,
+        String email,
+        String displayName,
+        String avatar,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String avatarThumb,
+        String bio,
+        String location,
+        String occupation,
+        int followers,
+        int following,
+        int postCount,
+        int commentCount,
+        int likesReceived,
+        String role,
+        // Solo en login/registro: token de sesión para "Authorization: Bearer"
+        @JsonInclude(JsonInclude.Include.NON_NULL) String token) {
+
+    public static UserDto from(User user, UserStats stats) {
+        return new UserDto(user.getId(), user.getUsername(), user.getEmail(), user.getDisplayName(),
+            user.getAvatar(), ImageVariant.AVATAR.urlFor(user.getAvatar()), user.getBio(), user.getLocation(), user.getOccupation(),
+            user.getFollowers(), user.getFollowing(), stats.getPosts(), stats.getComments(), stats.getLikesReceived(), user.getRole(), null);
+    }
+
+    public UserDto withToken(String token) {
+        return new UserDto(id, username, email, displayName, avatar, avatarThumb, bio, location, occupation,
+            followers, following, postCount, commentCount, likesReceived, role, token);
+    }
+}
@@ -0,0 +1,4 @@
+package com.foro.backend.event;
+
+// Se ha creado un artículo
+public record ArticleCreatedEvent(long articleId) {}
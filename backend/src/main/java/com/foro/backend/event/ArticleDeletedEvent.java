@@ -0,0 +1,4 @@
+package com.foro.backend.event;
+
+// Se ha borrado un artículo (con su categoría, para los contadores)
+public record ArticleDeletedEvent(long articleId, String category, boolean published) {}
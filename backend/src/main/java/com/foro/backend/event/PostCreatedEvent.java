@@ -0,0 +1,4 @@
+package com.foro.backend.event;
+
+// Se ha publicado un post nuevo (cambia la cabeza del feed)
+public record PostCreatedEvent(long postId) {}
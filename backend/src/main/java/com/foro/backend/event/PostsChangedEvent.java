@@ -0,0 +1,6 @@
+package com.foro.backend.event;
+
+import java.util.Collection;
+
+// Han cambiado los contadores (likes/comentarios) de estos posts
+public record PostsChangedEvent(Collection<Long> postIds) {}
@@ -0,0 +1,4 @@
+package com.foro.backend.event;
+
+// El GC ha borrado un fichero subido (y sus variantes)
+public record UploadDeletedEvent(String fileName) {}
@@ -0,0 +1,4 @@
+package com.foro.backend.event;
+
+// El usuario ha cambiado datos que se muestran como autor (nombre, avatar...)
+public record UserProfileChangedEvent(long userId) {}
@@ -1,13 +1,19 @@
 package com.foro.backend.model;
 
+import com.foro.backend.config.PooledId;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    // Listados de publicados por recencia, general y por categoría
+    @Index(name = "idx_article_published_created", columnList = "published, createdAt, id"),
+    @Index(name = "idx_article_category_published_created", columnList = "category, published, createdAt, id")
+})
 public class Article {
 
     @Id
-    @GeneratedValue
+    @PooledId
     private Long id;
 
     @Column(nullable = false)
@@ -1,18 +1,25 @@
 package com.foro.backend.model;
 
+import com.foro.backend.config.PooledId;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_comment_post_parent_created", columnList = "post_id, parent_id, createdAt"),
+    @Index(name = "idx_comment_parent_created", columnList = "parent_id, createdAt"),
+    @Index(name = "idx_comment_user_created", columnList = "user_id, createdAt, id")
+})
 public class Comment {
 
     @Id
-    @GeneratedValue
+    @PooledId
     private Long id;
 
     @Column(nullable = false, length = 500)
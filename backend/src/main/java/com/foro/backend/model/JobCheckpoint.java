@@ -0,0 +1,32 @@
+package com.foro.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+// Punto de reanudación de un trabajo por tramos: último id procesado
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    private long lastId;
+    private LocalDateTime updatedAt;
+
+    public JobCheckpoint() {}
+
+    public JobCheckpoint(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+    public long getLastId() { return lastId; }
+    public void setLastId(long lastId) { this.lastId = lastId; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
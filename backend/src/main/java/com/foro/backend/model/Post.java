@@ -1,7 +1,7 @@
 package com.foro.backend.model;
 
+import com.foro.backend.config.PooledId;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
@@ -10,7 +10,7 @@ import jakarta.persistence.JoinColumn;
 public class Post {
 
     @Id
-    @GeneratedValue
+    @PooledId
     private Long id;
 
     private String title;
@@ -1,29 +1,46 @@
 package com.foro.backend.model;
 
+import com.foro.backend.config.PooledId;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "post_likes", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"userId", "postId"})
+}, indexes = {
+    // Likes de un usuario por orden de recencia
+    @Index(name = "idx_post_likes_user_created", columnList = "userId, createdAt, id"),
+    // Recuento por tramos de posts (reconciliación de contadores)
+    @Index(name = "idx_post_likes_post", columnList = "postId")
 })
 public class PostLike {
 
     @Id
-    @GeneratedValue
+    @PooledId
     private Long id;
 
     private Long userId;
     private Long postId;
 
+    // Cuándo se dio el like (orden de "posts que me gustan"). Al añadir la columna, los likes
+    // anteriores toman la fecha por defecto y quedan al final de la lista
+    @ColumnDefault("'2000-01-01 00:00:00'")
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
     public PostLike() {}
 
     public PostLike(Long userId, Long postId) {
         this.userId = userId;
         this.postId = postId;
+        this.createdAt = LocalDateTime.now();
     }
 
     public Long getId() { return id; }
@@ -31,4 +48,6 @@ public class PostLike {
     public void setUserId(Long userId) { this.userId = userId; }
     public Long getPostId() { return postId; }
     public void setPostId(Long postId) { this.postId = postId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
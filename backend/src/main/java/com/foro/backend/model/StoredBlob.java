@@ -0,0 +1,50 @@
+package com.foro.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+// Fichero subido, identificado por el SHA-256 de su contenido.
+// refCount cuenta cuántos posts/artículos/avatares lo usan; con 0 lo puede borrar el GC.
+@Entity
+@Table(name = "stored_blobs", indexes = {
+    @Index(name = "idx_stored_blobs_refs_released", columnList = "refCount, releasedAt")
+})
+public class StoredBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private String fileName;   // <hash>.<ext>
+
+    private String contentType;
+    private long size;
+    private int refCount;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime releasedAt;  // Última vez que perdió una referencia
+
+    public StoredBlob() {}
+
+    public StoredBlob(String hash, String fileName, String contentType, long size) {
+        this.hash = hash;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.refCount = 1;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getHash() { return hash; }
+    public String getFileName() { return fileName; }
+    public String getContentType() { return contentType; }
+    public long getSize() { return size; }
+    public int getRefCount() { return refCount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getReleasedAt() { return releasedAt; }
+}
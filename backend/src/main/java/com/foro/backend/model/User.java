@@ -1,7 +1,7 @@
 package com.foro.backend.model;
 
+import com.foro.backend.config.PooledId;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
@@ -11,7 +11,7 @@ import jakarta.persistence.Column;
 public class User {
 
     @Id
-    @GeneratedValue
+    @PooledId
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -0,0 +1,33 @@
+package com.foro.backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Estadísticas de un usuario mantenidas al vuelo (posts, comentarios y likes recibidos),
+// para que mostrar un perfil no tenga que contar nada
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    private Long userId;
+
+    private int posts;
+    private int comments;
+    private int likesReceived;
+
+    public UserStats() {}
+
+    public UserStats(Long userId, int posts, int comments, int likesReceived) {
+        this.userId = userId;
+        this.posts = posts;
+        this.comments = comments;
+        this.likesReceived = likesReceived;
+    }
+
+    public Long getUserId() { return userId; }
+    public int getPosts() { return posts; }
+    public int getComments() { return comments; }
+    public int getLikesReceived() { return likesReceived; }
+}
@@ -1,9 +1,15 @@
 package com.foro.backend.repository;
 
+import com.foro.backend.dto.ArticlePreviewView;
 import com.foro.backend.model.Article;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +23,45 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
     
     // Buscar por título
     List<Article> findByTitleContainingIgnoreCaseAndPublishedTrue(String title);
+
+    // Previews de publicados (sin la columna TEXT "content"), más recientes primero
+    String PREVIEW_SELECT = "select new com.foro.backend.dto.ArticlePreviewView(a.id, a.title, a.summary, a.coverImage, "
+        + "a.category, a.createdAt, u.displayName, u.username) from Article a left join a.author u where a.published = true ";
+    String PREVIEW_ORDER = "order by a.createdAt desc, a.id desc";
+    String PREVIEW_BEFORE = "and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) ";
+
+    @Query(PREVIEW_SELECT + PREVIEW_ORDER)
+    List<ArticlePreviewView> findPreviews();
+
+    @Query(PREVIEW_SELECT + PREVIEW_ORDER)
+    List<ArticlePreviewView> findPreviews(Limit limit);
+
+    @Query(PREVIEW_SELECT + PREVIEW_BEFORE + PREVIEW_ORDER)
+    List<ArticlePreviewView> findPreviewsBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query(PREVIEW_SELECT + "and a.category = :category " + PREVIEW_ORDER)
+    List<ArticlePreviewView> findPreviewsByCategory(@Param("category") String category);
+
+    @Query(PREVIEW_SELECT + "and a.category = :category " + PREVIEW_ORDER)
+    List<ArticlePreviewView> findPreviewsByCategory(@Param("category") String category, Limit limit);
+
+    @Query(PREVIEW_SELECT + "and a.category = :category " + PREVIEW_BEFORE + PREVIEW_ORDER)
+    List<ArticlePreviewView> findPreviewsByCategoryBefore(@Param("category") String category, @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") Long id, Limit limit);
+
+    @Query(PREVIEW_SELECT + "and a.id in :ids")
+    List<ArticlePreviewView> findPreviewsByIds(@Param("ids") Collection<Long> ids);
+
+    // Publicados por categoría: [category, count]
+    @Query("select a.category, count(a) from Article a where a.published = true group by a.category")
+    List<Object[]> countPublishedByCategory();
+
+    // Claves de los más recientes de una categoría: [createdAt, id]
+    @Query("select a.createdAt, a.id from Article a where a.published = true and a.category = :category "
+         + "order by a.createdAt desc, a.id desc")
+    List<Object[]> findNewestInCategory(@Param("category") String category, Limit limit);
+
+    // Recorrido por lotes de id para construir índices en memoria
+    @Query("select a from Article a left join fetch a.author where a.published = true and a.id > :id order by a.id")
+    List<Article> findPublishedAfterId(@Param("id") Long id, Limit limit);
 }
\ No newline at end of file
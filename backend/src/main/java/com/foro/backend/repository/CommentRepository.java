@@ -1,9 +1,17 @@
 package com.foro.backend.repository;
 
+import com.foro.backend.dto.UserCommentView;
 import com.foro.backend.model.Comment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,9 +23,74 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Obtener respuestas de un comentario
     List<Comment> findByParentIdOrderByCreatedAtAsc(Long parentId);
     
+    // Autores de las respuestas de un comentario, uno por respuesta (sin cargar entidades)
+    @Query("select c.user.id from Comment c where c.parent.id = :parentId")
+    List<Long> findReplyUserIds(@Param("parentId") Long parentId);
+
+    // Borrar todas las respuestas de un comentario en una sola sentencia; devuelve las borradas
+    @Transactional
+    @Modifying
+    @Query("delete from Comment c where c.parent.id = :parentId")
+    int deleteReplies(@Param("parentId") Long parentId);
+    
+    // Todos los comentarios de un post (con autor) para montar el árbol en memoria
+    @Query("select c from Comment c join fetch c.user where c.post.id = :postId order by c.createdAt asc, c.id asc")
+    List<Comment> findThreadByPostId(@Param("postId") Long postId);
+
+    // Página de comentarios principales (keyset por createdAt, id descendente)
+    @Query("select c from Comment c join fetch c.user where c.post.id = :postId and c.parent is null "
+         + "order by c.createdAt desc, c.id desc")
+    List<Comment> findTopLevelPage(@Param("postId") Long postId, Limit limit);
+
+    @Query("select c from Comment c join fetch c.user where c.post.id = :postId and c.parent is null "
+         + "and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id)) "
+         + "order by c.createdAt desc, c.id desc")
+    List<Comment> findTopLevelPageBefore(@Param("postId") Long postId, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Limit limit);
+
+    // Las primeras :limit respuestas de cada uno de varios comentarios, cortadas en SQL, con el total
+    // de respuestas de su hilo: [Comment, total]
+    @Query("select c, x.total from Comment c join fetch c.user "
+         + "join (select r.id as id, "
+         + "row_number() over (partition by r.parent.id order by r.createdAt asc, r.id asc) as rn, "
+         + "count(*) over (partition by r.parent.id) as total "
+         + "from Comment r where r.parent.id in :parentIds) x on x.id = c.id "
+         + "where x.rn <= :limit order by c.createdAt asc, c.id asc")
+    List<Object[]> findFirstRepliesByParentIds(@Param("parentIds") Collection<Long> parentIds, @Param("limit") long limit);
+
+    // Página de respuestas de un comentario de ese post (keyset por createdAt, id ascendente)
+    @Query("select c from Comment c join fetch c.user where c.post.id = :postId and c.parent.id = :parentId "
+         + "and (c.createdAt > :createdAt or (c.createdAt = :createdAt and c.id > :id)) "
+         + "order by c.createdAt asc, c.id asc")
+    List<Comment> findRepliesAfter(@Param("postId") Long postId, @Param("parentId") Long parentId,
+                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("select c from Comment c join fetch c.user where c.post.id = :postId and c.parent.id = :parentId "
+         + "order by c.createdAt asc, c.id asc")
+    List<Comment> findRepliesPage(@Param("postId") Long postId, @Param("parentId") Long parentId, Limit limit);
+    
     // Contar comentarios de un post (incluye respuestas)
     int countByPostId(Long postId);
+
+    // Comentarios reales (con respuestas de cualquier nivel) de un tramo de posts: [postId, total]
+    @Query("select c.post.id, count(c) from Comment c where c.post.id between :fromId and :toId group by c.post.id")
+    List<Object[]> countByPostIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
     
     // Obtener comentarios de un usuario
     List<Comment> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // Historial de un usuario: solo id, contenido, fecha y post (sin cargar entidades)
+    String USER_COMMENTS_SELECT = "select new com.foro.backend.dto.UserCommentView(c.id, c.content, c.createdAt, p.id, p.title) "
+        + "from Comment c left join c.post p where c.user.id = :userId ";
+
+    @Query(USER_COMMENTS_SELECT + "order by c.createdAt desc, c.id desc")
+    List<UserCommentView> findUserCommentViews(@Param("userId") Long userId);
+
+    @Query(USER_COMMENTS_SELECT + "order by c.createdAt desc, c.id desc")
+    List<UserCommentView> findUserCommentViews(@Param("userId") Long userId, Limit limit);
+
+    @Query(USER_COMMENTS_SELECT + "and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id)) "
+         + "order by c.createdAt desc, c.id desc")
+    List<UserCommentView> findUserCommentViewsBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id, Limit limit);
 }
\ No newline at end of file
@@ -1,9 +1,17 @@
 package com.foro.backend.repository;
 
+import com.foro.backend.dto.LikedPostView;
 import com.foro.backend.model.PostLike;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,13 +20,51 @@ public interface PostLikeRepository extends JpaRepository<PostLike, Long> {
     
     // Verificar si un usuario ya dio like a un post
     boolean existsByUserIdAndPostId(Long userId, Long postId);
+
+    // De estos posts, cuáles ha likeado el usuario (una sola consulta por página)
+    @Query("select l.postId from PostLike l where l.userId = :userId and l.postId in :postIds")
+    List<Long> findLikedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
     
     // Buscar like específico para eliminarlo
     Optional<PostLike> findByUserIdAndPostId(Long userId, Long postId);
     
+    // Borrar el like si existe; devuelve las filas borradas (0 o 1)
+    @Transactional
+    @Modifying
+    @Query("delete from PostLike l where l.userId = :userId and l.postId = :postId")
+    int deleteLike(@Param("userId") Long userId, @Param("postId") Long postId);
+    
     // Obtener todos los posts que un usuario ha likeado
     List<PostLike> findByUserId(Long userId);
     
+    // Posts likeados por un usuario con su autor, del like más reciente al más antiguo (un solo JOIN)
+    String LIKED_POSTS_SELECT = "select new com.foro.backend.dto.LikedPostView(p.id, p.title, p.content, p.img, "
+        + "p.likes, p.comments, u.id, u.username, u.displayName, u.avatar, l.id, l.createdAt) "
+        + "from PostLike l join Post p on p.id = l.postId left join p.user u where l.userId = :userId ";
+
+    @Query(LIKED_POSTS_SELECT + "order by l.createdAt desc, l.id desc")
+    List<LikedPostView> findLikedPosts(@Param("userId") Long userId);
+
+    @Query(LIKED_POSTS_SELECT + "order by l.createdAt desc, l.id desc")
+    List<LikedPostView> findLikedPosts(@Param("userId") Long userId, Limit limit);
+
+    @Query(LIKED_POSTS_SELECT + "and (l.createdAt < :createdAt or (l.createdAt = :createdAt and l.id < :id)) "
+         + "order by l.createdAt desc, l.id desc")
+    List<LikedPostView> findLikedPostsBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Limit limit);
+
+    // Likes anteriores a la columna createdAt: se les da una fecha fija para que queden al final
+    @Transactional
+    @Modifying
+    @Query("update PostLike l set l.createdAt = :createdAt where l.createdAt is null")
+    int backfillCreatedAt(@Param("createdAt") LocalDateTime createdAt);
+
+    boolean existsByCreatedAtIsNull();
+    
     // Contar likes de un post
     int countByPostId(Long postId);
+
+    // Likes reales de los posts de un tramo de ids: [postId, total]
+    @Query("select l.postId, count(l) from PostLike l where l.postId between :fromId and :toId group by l.postId")
+    List<Object[]> countByPostIdRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
 }
\ No newline at end of file
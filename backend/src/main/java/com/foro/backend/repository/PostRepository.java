@@ -1,8 +1,14 @@
 package com.foro.backend.repository;
 
 import com.foro.backend.model.Post;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -10,10 +16,39 @@ import java.util.List;
 public interface PostRepository extends JpaRepository<Post, Long> {
     
     List<Post> findAllByOrderByIdDesc();
+
+    // Feed paginado (keyset por id descendente): primera página y siguientes
+    @EntityGraph(attributePaths = "user")
+    List<Post> findAllByOrderByIdDesc(Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Post> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
     
     // Posts de un usuario específico
     List<Post> findByUserIdOrderByIdDesc(Long userId);
+
+    @EntityGraph(attributePaths = "user")
+    List<Post> findByUserIdOrderByIdDesc(Long userId, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    List<Post> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
     
     // Contar posts de un usuario
     int countByUserId(Long userId);
+
+    // Contadores guardados del siguiente tramo de posts por id: [id, likes, comments]
+    @Query("select p.id, p.likes, p.comments from Post p where p.id > :afterId order by p.id")
+    List<Object[]> findCountersAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Contadores atómicos: se suman en la base de datos (nunca bajan de 0)
+    // y solo se actualiza esa columna
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Post p set p.likes = case when p.likes + :delta < 0 then 0 else p.likes + :delta end where p.id = :postId")
+    int addToLikes(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Post p set p.comments = case when p.comments + :delta < 0 then 0 else p.comments + :delta end where p.id = :postId")
+    int addToComments(@Param("postId") Long postId, @Param("delta") int delta);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.foro.backend.repository;
+
+import com.foro.backend.model.StoredBlob;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Una referencia más a un blob que ya existe (0 si no existe)
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount + 1 where b.hash = :hash")
+    int addReference(@Param("hash") String hash);
+
+    // Una referencia menos; nunca baja de 0
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount - 1, b.releasedAt = :now where b.hash = :hash and b.refCount > 0")
+    int releaseReference(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // Blobs sin referencias desde antes de la fecha dada
+    @Query("select b from StoredBlob b where b.refCount <= 0 and b.releasedAt < :before order by b.releasedAt")
+    List<StoredBlob> findUnreferenced(@Param("before") LocalDateTime before, Limit limit);
+
+    // Borra la fila solo si sigue sin referencias
+    @Transactional
+    @Modifying
+    @Query("delete from StoredBlob b where b.hash = :hash and b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,34 @@
+package com.foro.backend.repository;
+
+import com.foro.backend.model.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Deltas atómicos, como los contadores de Post (nunca bajan de 0).
+    // Devuelven 0 si el usuario aún no tiene fila.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserStats s set s.posts = case when s.posts + :delta < 0 then 0 else s.posts + :delta end "
+         + "where s.userId = :userId")
+    int addToPosts(@Param("userId") Long userId, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserStats s set s.comments = case when s.comments + :delta < 0 then 0 else s.comments + :delta end "
+         + "where s.userId = :userId")
+    int addToComments(@Param("userId") Long userId, @Param("delta") int delta);
+
+    // Likes recibidos por el autor de un post
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserStats s set s.likesReceived = case when s.likesReceived + :delta < 0 then 0 else s.likesReceived + :delta end "
+         + "where s.userId = (select p.user.id from Post p where p.id = :postId)")
+    int addToLikesReceivedForPost(@Param("postId") Long postId, @Param("delta") int delta);
+}
@@ -0,0 +1,456 @@
+package com.foro.backend.service;
+
+import com.foro.backend.dto.ArticlePreviewDto;
+import com.foro.backend.event.ArticleCreatedEvent;
+import com.foro.backend.event.ArticleDeletedEvent;
+import com.foro.backend.event.UserProfileChangedEvent;
+import com.foro.backend.model.Article;
+import com.foro.backend.repository.ArticleRepository;
+import com.foro.backend.util.SpanishText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido en memoria de los artículos publicados (título, resumen y contenido).
+// Cada documento tiene un número interno creciente; las postings de cada término son
+// (delta de documento, frecuencia) en varints dentro de un byte[]. Los borrados (y las versiones
+// viejas de los reindexados) se marcan en un BitSet; cuando son muchos, la compactación los quita
+// y renumera los vivos, así que los arrays por documento no crecen con el histórico. La búsqueda puntúa con BM25 y devuelve
+// la preview guardada en el índice, sin ir a la base de datos.
+@Component
+public class ArticleSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ArticleSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Una aparición en el título cuenta como tres en el cuerpo
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SUMMARY_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    private static final int LOAD_BATCH = 200;
+    private static final int MAX_QUERY_TERMS = 16;
+
+    // Resultado de una búsqueda; score y articleId forman el cursor de la siguiente página
+    public record Hit(ArticlePreviewDto preview, float score) {}
+
+    public record Page(List<Hit> hits, int total, Hit last) {}
+
+    // Lista de postings comprimida de un término
+    private static final class Postings {
+        byte[] data = new byte[8];
+        int length;
+        int lastDoc = -1;
+        int liveDocs;
+
+        void add(int doc, int frequency) {
+            ensure(10);
+            length = writeVarInt(data, length, doc - lastDoc);
+            length = writeVarInt(data, length, frequency);
+            lastDoc = doc;
+            liveDocs++;
+        }
+
+        // Reescribe la lista sin los documentos borrados, con los números nuevos (renumber[doc],
+        // creciente en los vivos, así que el orden se mantiene)
+        void compact(BitSet deleted, int[] renumber) {
+            byte[] out = new byte[Math.max(8, length)];
+            int outLength = 0;
+            int previousKept = -1;
+            int doc = -1;
+            int position = 0;
+            while (position < length) {
+                int delta = readVarInt(data, position);
+                position += varIntSize(delta);
+                int frequency = readVarInt(data, position);
+                position += varIntSize(frequency);
+                doc += delta;
+                if (!deleted.get(doc)) {
+                    int kept = renumber[doc];
+                    outLength = writeVarInt(out, outLength, kept - previousKept);
+                    outLength = writeVarInt(out, outLength, frequency);
+                    previousKept = kept;
+                }
+            }
+            data = Arrays.copyOf(out, Math.max(8, outLength));
+            length = outLength;
+            lastDoc = previousKept;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+
+    private final ArticleRepository articleRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<Long, Integer> docByArticle = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    // Por número de documento
+    private long[] articleIds = new long[64];
+    private long[] authorIds = new long[64];
+    private int[] lengths = new int[64];
+    private int[][] docTerms = new int[64][];
+    private ArticlePreviewDto[] previews = new ArticlePreviewDto[64];
+
+    private int docCount;
+    private int liveDocs;
+    private int deletedDocs;
+    private long totalLength;
+
+    public ArticleSearchIndex(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    // Carga inicial desde la base de datos, por lotes de id
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        long lastId = 0;
+        List<Article> batch;
+        do {
+            batch = articleRepository.findPublishedAfterId(lastId, Limit.of(LOAD_BATCH));
+            for (Article article : batch) {
+                index(article);
+                lastId = article.getId();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        log.info("Índice de búsqueda: {} artículos, {} términos en {} ms",
+            size(), termCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onArticleCreated(ArticleCreatedEvent event) {
+        articleRepository.findById(event.articleId()).ifPresent(this::index);
+    }
+
+    @EventListener
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        remove(event.articleId());
+    }
+
+    // El nombre del autor va en la preview guardada
+    @EventListener
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        List<Long> articles = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int doc = 0; doc < docCount; doc++) {
+                if (!deleted.get(doc) && authorIds[doc] == event.userId()) {
+                    articles.add(articleIds[doc]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (articles.isEmpty()) {
+            return;
+        }
+        List<Article> reloaded = articleRepository.findAllById(articles);
+        lock.writeLock().lock();
+        try {
+            for (Article article : reloaded) {
+                Integer doc = docByArticle.get(article.getId());
+                if (doc != null) {
+                    previews[doc] = ArticlePreviewDto.from(article);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexa (o reindexa) un artículo; los no publicados se quitan del índice
+    public void index(Article article) {
+        if (!article.isPublished()) {
+            remove(article.getId());
+            return;
+        }
+
+        // El análisis se hace fuera del lock
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addTerms(frequencies, article.getTitle(), TITLE_WEIGHT);
+        length += addTerms(frequencies, article.getSummary(), SUMMARY_WEIGHT);
+        length += addTerms(frequencies, SpanishText.stripHtml(article.getContent()), CONTENT_WEIGHT);
+        ArticlePreviewDto preview = ArticlePreviewDto.from(article);
+        long authorId = article.getAuthor() != null ? article.getAuthor().getId() : 0;
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(article.getId());
+
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            int[] terms = new int[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                int termId = termIds.computeIfAbsent(entry.getKey(), term -> {
+                    postings.add(new Postings());
+                    return postings.size() - 1;
+                });
+                postings.get(termId).add(doc, entry.getValue());
+                terms[i++] = termId;
+            }
+
+            articleIds[doc] = article.getId();
+            authorIds[doc] = authorId;
+            lengths[doc] = length;
+            docTerms[doc] = terms;
+            previews[doc] = preview;
+            docByArticle.put(article.getId(), doc);
+            liveDocs++;
+            totalLength += length;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long articleId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(articleId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Resultados ordenados por (score desc, id desc); after = último resultado de la página anterior
+    public Page search(String query, Float afterScore, Long afterId, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(SpanishText.terms(query));
+        if (queryTerms.isEmpty()) {
+            return new Page(List.of(), 0, null);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return new Page(List.of(), 0, null);
+            }
+            float averageLength = Math.max(1f, totalLength / (float) liveDocs);
+            float[] scores = new float[docCount];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+
+            int used = 0;
+            for (String term : queryTerms) {
+                if (used++ == MAX_QUERY_TERMS) break;
+                Integer termId = termIds.get(term);
+                if (termId == null) continue;
+                Postings list = postings.get(termId);
+                if (list.liveDocs == 0) continue;
+
+                float idf = (float) Math.log(1 + (liveDocs - list.liveDocs + 0.5) / (list.liveDocs + 0.5));
+                int doc = -1;
+                int position = 0;
+                while (position < list.length) {
+                    int delta = readVarInt(list.data, position);
+                    position += varIntSize(delta);
+                    int frequency = readVarInt(list.data, position);
+                    position += varIntSize(frequency);
+                    doc += delta;
+                    if (deleted.get(doc)) continue;
+
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    if (scores[doc] == 0) {
+                        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+
+            // Orden total: score desc, id de artículo desc
+            Integer[] ranked = new Integer[touchedCount];
+            for (int i = 0; i < touchedCount; i++) ranked[i] = touched[i];
+            Arrays.sort(ranked, (a, b) -> {
+                int byScore = Float.compare(scores[b], scores[a]);
+                return byScore != 0 ? byScore : Long.compare(articleIds[b], articleIds[a]);
+            });
+
+            int start = 0;
+            if (afterScore != null && afterId != null) {
+                while (start < ranked.length && !isAfter(scores[ranked[start]], articleIds[ranked[start]], afterScore, afterId)) {
+                    start++;
+                }
+            }
+            int end = Math.min(ranked.length, start + limit + 1);
+            List<Hit> hits = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                hits.add(new Hit(previews[ranked[i]], scores[ranked[i]]));
+            }
+            Hit last = null;
+            if (hits.size() > limit) {
+                hits = hits.subList(0, limit);
+                last = hits.get(limit - 1);
+            }
+            return new Page(hits, touchedCount, last);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isAfter(float score, long articleId, float afterScore, long afterId) {
+        int byScore = Float.compare(afterScore, score);
+        return byScore > 0 || (byScore == 0 && articleId < afterId);
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = SpanishText.terms(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private void removeLocked(long articleId) {
+        Integer doc = docByArticle.remove(articleId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        for (int termId : docTerms[doc]) {
+            postings.get(termId).liveDocs--;
+        }
+        totalLength -= lengths[doc];
+        docTerms[doc] = null;
+        previews[doc] = null;
+        liveDocs--;
+        deletedDocs++;
+    }
+
+    private void compactIfNeeded() {
+        if (deletedDocs > 64 && deletedDocs * 4 > docCount) {
+            compact();
+        }
+    }
+
+    // Quita los documentos borrados de las postings y renumera los vivos de 0 a liveDocs - 1
+    private void compact() {
+        int[] renumber = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            renumber[doc] = deleted.get(doc) ? -1 : next++;
+        }
+        for (Postings list : postings) {
+            list.compact(deleted, renumber);
+        }
+        for (int doc = 0; doc < docCount; doc++) {
+            int kept = renumber[doc];
+            if (kept < 0 || kept == doc) {
+                continue;
+            }
+            articleIds[kept] = articleIds[doc];
+            authorIds[kept] = authorIds[doc];
+            lengths[kept] = lengths[doc];
+            docTerms[kept] = docTerms[doc];
+            previews[kept] = previews[doc];
+            docByArticle.put(articleIds[kept], kept);
+        }
+        Arrays.fill(docTerms, next, docCount, null);
+        Arrays.fill(previews, next, docCount, null);
+        docCount = next;
+        deleted.clear();
+        deletedDocs = 0;
+        // Si han quedado muy vacíos, los arrays se encogen
+        if (articleIds.length > 64 && docCount * 4 < articleIds.length) {
+            resize(Math.max(64, docCount * 2));
+        }
+    }
+
+    // Huecos por número de documento (vivos + borrados pendientes de compactar)
+    int documentSlots() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= articleIds.length) {
+            return;
+        }
+        resize(Math.max(capacity, articleIds.length * 2));
+    }
+
+    private void resize(int newCapacity) {
+        articleIds = Arrays.copyOf(articleIds, newCapacity);
+        authorIds = Arrays.copyOf(authorIds, newCapacity);
+        lengths = Arrays.copyOf(lengths, newCapacity);
+        docTerms = Arrays.copyOf(docTerms, newCapacity);
+        previews = Arrays.copyOf(previews, newCapacity);
+    }
+
+    private static int writeVarInt(byte[] buffer, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarInt(byte[] buffer, int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer[position++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
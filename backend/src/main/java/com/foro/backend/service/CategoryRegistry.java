@@ -0,0 +1,200 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.ArticleCreatedEvent;
+import com.foro.backend.event.ArticleDeletedEvent;
+import com.foro.backend.repository.ArticleRepository;
+import com.foro.backend.util.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Categorías de artículos con su número de publicados y los ids más recientes de cada una.
+// Se reconstruye desde la base de datos al arrancar y se mantiene con los eventos de
+// creación/borrado, así que la lista de categorías y las primeras páginas de cada categoría
+// no recorren la tabla Article.
+@Component
+public class CategoryRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    // Categorías que se ofrecen aunque aún no tengan artículos (las que usa el frontend)
+    public static final List<String> DEFAULT_CATEGORIES = List.of(
+        "Inteligencia Artificial",
+        "Smartphones",
+        "Gaming",
+        "Software",
+        "Hardware",
+        "Redes Sociales",
+        "Ciberseguridad",
+        "Startups"
+    );
+
+    // Ids recientes que se guardan por categoría
+    static final int NEWEST_PER_CATEGORY = 100;
+
+    private static final Comparator<Cursor.TimeId> NEWEST_FIRST =
+        Comparator.comparing(Cursor.TimeId::createdAt).thenComparingLong(Cursor.TimeId::id).reversed();
+
+    private static final class Category {
+        long count;
+        // Más recientes primero; como mucho NEWEST_PER_CATEGORY
+        final List<Cursor.TimeId> newest = new ArrayList<>();
+        // Tras borrar uno de la lista puede faltar alguno por detrás: se recarga al leer
+        boolean incomplete;
+    }
+
+    private final ArticleRepository articleRepository;
+    private final Map<String, Category> categories = new ConcurrentHashMap<>();
+
+    public CategoryRegistry(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<String, Category> loaded = new LinkedHashMap<>();
+        for (Object[] row : articleRepository.countPublishedByCategory()) {
+            if (row[0] == null) continue;
+            Category category = new Category();
+            category.count = (Long) row[1];
+            loadNewest((String) row[0], category);
+            loaded.put((String) row[0], category);
+        }
+        categories.clear();
+        categories.putAll(loaded);
+        log.info("Categorías cargadas: {}", loaded.size());
+    }
+
+    @EventListener
+    public void onArticleCreated(ArticleCreatedEvent event) {
+        articleRepository.findById(event.articleId())
+            .filter(article -> article.isPublished() && article.getCategory() != null)
+            .ifPresent(article -> {
+                Category category = categories.computeIfAbsent(article.getCategory(), name -> new Category());
+                synchronized (category) {
+                    category.count++;
+                    // Misma precisión que la columna, para comparar con los cursores
+                    Cursor.TimeId entry = new Cursor.TimeId(article.getCreatedAt().truncatedTo(ChronoUnit.MICROS), article.getId());
+                    int position = insertionPoint(category.newest, entry);
+                    if (position < NEWEST_PER_CATEGORY) {
+                        category.newest.add(position, entry);
+                        if (category.newest.size() > NEWEST_PER_CATEGORY) {
+                            category.newest.remove(category.newest.size() - 1);
+                        }
+                    }
+                }
+            });
+    }
+
+    @EventListener
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        if (!event.published() || event.category() == null) {
+            return;
+        }
+        Category category = categories.get(event.category());
+        if (category == null) {
+            return;
+        }
+        synchronized (category) {
+            category.count = Math.max(0, category.count - 1);
+            if (category.newest.removeIf(entry -> entry.id() == event.articleId())
+                    && category.count > category.newest.size()) {
+                category.incomplete = true;
+            }
+        }
+    }
+
+    // Nombres para el selector: los de siempre y después cualquier otra con artículos
+    public List<String> names() {
+        List<String> names = new ArrayList<>(DEFAULT_CATEGORIES);
+        categories.keySet().stream()
+            .filter(name -> !names.contains(name))
+            .sorted()
+            .forEach(names::add);
+        return names;
+    }
+
+    // Publicados por categoría, en el orden de names()
+    public Map<String, Long> counts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String name : names()) {
+            Category category = categories.get(name);
+            if (category == null) {
+                counts.put(name, 0L);
+            } else {
+                synchronized (category) {
+                    counts.put(name, category.count);
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Claves (createdAt, id) de la página que empieza tras "before" (null = primera), como mucho "fetch".
+    // Devuelve null si la respuesta no está en memoria y hay que ir a la base de datos.
+    public List<Cursor.TimeId> newest(String name, Cursor.TimeId before, int fetch) {
+        Category category = categories.get(name);
+        if (category == null) {
+            return List.of();
+        }
+        synchronized (category) {
+            if (category.incomplete) {
+                loadNewest(name, category);
+            }
+            int start = before != null ? insertionPoint(category.newest, before) : 0;
+            int end = (int) Math.min(category.newest.size(), (long) start + fetch);
+            // Si la página sigue más allá de lo que hay en memoria, no se puede responder desde aquí
+            boolean complete = category.count <= category.newest.size();
+            if (end - start < fetch && !complete) {
+                return null;
+            }
+            return new ArrayList<>(category.newest.subList(start, end));
+        }
+    }
+
+    // Cuántos publicados tiene la categoría
+    public long count(String name) {
+        Category category = categories.get(name);
+        if (category == null) {
+            return 0;
+        }
+        synchronized (category) {
+            return category.count;
+        }
+    }
+
+    private void loadNewest(String name, Category category) {
+        category.newest.clear();
+        for (Object[] row : articleRepository.findNewestInCategory(name, Limit.of(NEWEST_PER_CATEGORY))) {
+            category.newest.add(new Cursor.TimeId((LocalDateTime) row[0], (Long) row[1]));
+        }
+        category.incomplete = false;
+    }
+
+    // Primera posición cuyo elemento va después de "entry" en orden descendente
+    private static int insertionPoint(List<Cursor.TimeId> entries, Cursor.TimeId entry) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (NEWEST_FIRST.compare(entries.get(mid), entry) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,216 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.PostsChangedEvent;
+import com.foro.backend.model.JobCheckpoint;
+import com.foro.backend.repository.CommentRepository;
+import com.foro.backend.repository.JobCheckpointRepository;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reconciliación de Post.likes y Post.comments con post_likes y Comment (foro.reconcile.enabled).
+// Recorre los posts por tramos de ids, cada tramo en su propia transacción corta: lee los
+// contadores guardados, cuenta los reales con GROUP BY y escribe en un lote JDBC solo los que
+// difieren. Cada update comprueba que el contador no ha cambiado desde la lectura; si lo ha hecho
+// un like o comentario concurrente, ese post se deja para la siguiente pasada. El último id
+// procesado se guarda en job_checkpoints, así que una pasada interrumpida sigue donde se quedó.
+@Component
+public class CounterReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterReconciliationJob.class);
+
+    static final String CHECKPOINT = "post-counters";
+    private static final int JDBC_BATCH_SIZE = 100;
+
+    // Resultado de una ejecución; finished = se llegó al último post y la siguiente empieza de cero
+    public record Result(int scanned, int corrected, int skipped, boolean finished) {}
+
+    private record Fix(long postId, int likes, int comments, int storedLikes, int storedComments) {}
+
+    private record Chunk(int scanned, List<Long> correctedIds, int skipped) {}
+
+    private final PostRepository postRepository;
+    private final PostLikeRepository postLikeRepository;
+    private final CommentRepository commentRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final ReentrantLock running = new ReentrantLock();
+
+    private volatile Result lastResult;
+    private volatile LocalDateTime lastRunAt;
+    private long totalCorrected;
+
+    public CounterReconciliationJob(PostRepository postRepository, PostLikeRepository postLikeRepository,
+                                    CommentRepository commentRepository, JobCheckpointRepository checkpointRepository,
+                                    JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${foro.reconcile.enabled:true}") boolean enabled,
+                                    @Value("${foro.reconcile.chunk-size:500}") int chunkSize,
+                                    @Value("${foro.reconcile.max-chunks-per-run:0}") int maxChunksPerRun) {
+        this.postRepository = postRepository;
+        this.postLikeRepository = postLikeRepository;
+        this.commentRepository = commentRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxChunksPerRun = maxChunksPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${foro.reconcile.interval-ms:21600000}",
+               initialDelayString = "${foro.reconcile.initial-delay-ms:300000}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    // Una ejecución desde el checkpoint: hasta el final o hasta max-chunks-per-run tramos (0 = sin límite)
+    public Result run() {
+        return run(maxChunksPerRun);
+    }
+
+    Result run(int maxChunks) {
+        if (!running.tryLock()) {
+            return new Result(0, 0, 0, false);
+        }
+        try {
+            JobCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT).orElseGet(() -> new JobCheckpoint(CHECKPOINT));
+            int scanned = 0;
+            int corrected = 0;
+            int skipped = 0;
+            boolean finished = false;
+            for (int chunk = 0; maxChunks <= 0 || chunk < maxChunks; chunk++) {
+                long afterId = checkpoint.getLastId();
+                Chunk outcome = transactionTemplate.execute(status -> reconcileChunk(afterId, checkpoint));
+                // Tras el commit, para que las cachés no vuelvan a leer los valores viejos
+                if (!outcome.correctedIds().isEmpty()) {
+                    eventPublisher.publishEvent(new PostsChangedEvent(outcome.correctedIds()));
+                }
+                scanned += outcome.scanned();
+                corrected += outcome.correctedIds().size();
+                skipped += outcome.skipped();
+                if (outcome.scanned() < chunkSize) {
+                    finished = true;
+                    break;
+                }
+            }
+            if (finished) {
+                checkpoint.setLastId(0);
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            }
+
+            Result result = new Result(scanned, corrected, skipped, finished);
+            lastResult = result;
+            lastRunAt = LocalDateTime.now();
+            synchronized (this) {
+                totalCorrected += corrected;
+            }
+            if (corrected > 0 || skipped > 0) {
+                log.info("Reconciliación de contadores: {} posts revisados, {} corregidos, {} con cambios concurrentes",
+                    scanned, corrected, skipped);
+            }
+            return result;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    // Un tramo; el checkpoint avanza en la misma transacción que las correcciones
+    private Chunk reconcileChunk(long afterId, JobCheckpoint checkpoint) {
+        List<Object[]> stored = postRepository.findCountersAfter(afterId, Limit.of(chunkSize));
+        if (stored.isEmpty()) {
+            return new Chunk(0, List.of(), 0);
+        }
+        long fromId = (Long) stored.get(0)[0];
+        long toId = (Long) stored.get(stored.size() - 1)[0];
+
+        Map<Long, Integer> likes = totals(postLikeRepository.countByPostIdRange(fromId, toId));
+        Map<Long, Integer> comments = totals(commentRepository.countByPostIdRange(fromId, toId));
+
+        List<Fix> fixes = new ArrayList<>();
+        for (Object[] row : stored) {
+            long postId = (Long) row[0];
+            int storedLikes = (Integer) row[1];
+            int storedComments = (Integer) row[2];
+            int realLikes = likes.getOrDefault(postId, 0);
+            int realComments = comments.getOrDefault(postId, 0);
+            if (realLikes != storedLikes || realComments != storedComments) {
+                fixes.add(new Fix(postId, realLikes, realComments, storedLikes, storedComments));
+            }
+        }
+
+        List<Long> correctedIds = new ArrayList<>();
+        if (!fixes.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(
+                "update post set likes = ?, comments = ? where id = ? and likes = ? and comments = ?",
+                fixes, JDBC_BATCH_SIZE,
+                (ps, fix) -> {
+                    ps.setInt(1, fix.likes());
+                    ps.setInt(2, fix.comments());
+                    ps.setLong(3, fix.postId());
+                    ps.setInt(4, fix.storedLikes());
+                    ps.setInt(5, fix.storedComments());
+                });
+            int i = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    Fix fix = fixes.get(i++);
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        correctedIds.add(fix.postId());
+                    }
+                }
+            }
+        }
+
+        checkpoint.setLastId(toId);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        checkpointRepository.save(checkpoint);
+        return new Chunk(stored.size(), correctedIds, fixes.size() - correctedIds.size());
+    }
+
+    private static Map<Long, Integer> totals(List<Object[]> rows) {
+        Map<Long, Integer> totals = new HashMap<>();
+        for (Object[] row : rows) {
+            totals.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        return totals;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("chunkSize", chunkSize);
+        stats.put("checkpoint", checkpointRepository.findById(CHECKPOINT).map(JobCheckpoint::getLastId).orElse(0L));
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastResult", lastResult);
+        stats.put("totalCorrected", totalCorrected);
+        return stats;
+    }
+}
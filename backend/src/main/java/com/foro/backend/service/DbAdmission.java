@@ -0,0 +1,191 @@
+package com.foro.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Control de admisión a la base de datos para las peticiones HTTP: como mucho "permits" a la vez
+// con conexión (lo que da el pool de Hikari) y una cola acotada para el resto. Al liberar un
+// permiso pasan antes las escrituras, pero tras write-burst escrituras seguidas entra una lectura,
+// así nadie se queda esperando siempre. Con la cola llena, o tras max-wait-ms en ella, se rechaza
+// y la petición acaba en 503 con Retry-After en lugar de dejar hilos colgados del pool.
+@Component
+public class DbAdmission {
+
+    public enum Priority { READ, WRITE }
+
+    // Rechazo por saturación; llega al cliente como 503 (ver DbAdmissionConfig)
+    public static class SaturatedException extends SQLTransientConnectionException {
+        private final int retryAfterSeconds;
+
+        public SaturatedException(String reason, int retryAfterSeconds) {
+            super("Base de datos saturada: " + reason);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private static final class Waiter {
+        final Condition signal;
+        boolean admitted;
+
+        Waiter(Condition signal) {
+            this.signal = signal;
+        }
+    }
+
+    private static final class Counters {
+        long admitted;
+        long queued;
+        long rejectedQueueFull;
+        long rejectedTimeout;
+        long totalWaitNanos;
+        long maxWaitNanos;
+    }
+
+    private final int permits;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final int writeBurst;
+    private final int retryAfterSeconds;
+
+    // Todo el estado va bajo este lock (no synchronized: no fija los hilos virtuales)
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counters> counters = new EnumMap<>(Priority.class);
+    private int available;
+    private int writeStreak;
+
+    public DbAdmission(@Value("${foro.db.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+                       @Value("${foro.db.admission.max-queue:100}") int maxQueue,
+                       @Value("${foro.db.admission.max-wait-ms:1000}") long maxWaitMs,
+                       @Value("${foro.db.admission.write-burst:4}") int writeBurst,
+                       @Value("${foro.db.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.permits = permits;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.writeBurst = Math.max(1, writeBurst);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.available = permits;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            counters.put(priority, new Counters());
+        }
+    }
+
+    // Espera un permiso en la cola de su prioridad; lanza SaturatedException si no llega a tiempo
+    public void acquire(Priority priority) throws SaturatedException {
+        long start = System.nanoTime();
+        Counters stats = counters.get(priority);
+        lock.lock();
+        try {
+            if (available > 0 && queuedTotal() == 0) {
+                available--;
+                stats.admitted++;
+                return;
+            }
+            if (queuedTotal() >= maxQueue) {
+                stats.rejectedQueueFull++;
+                throw new SaturatedException("cola llena", retryAfterSeconds);
+            }
+
+            ArrayDeque<Waiter> queue = queues.get(priority);
+            Waiter waiter = new Waiter(lock.newCondition());
+            queue.addLast(waiter);
+            stats.queued++;
+            long remaining = maxWaitNanos;
+            try {
+                while (!waiter.admitted && remaining > 0) {
+                    remaining = waiter.signal.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            long waited = System.nanoTime() - start;
+            if (!waiter.admitted) {
+                queue.remove(waiter);
+                stats.rejectedTimeout++;
+                throw new SaturatedException("espera agotada", retryAfterSeconds);
+            }
+            stats.admitted++;
+            stats.totalWaitNanos += waited;
+            stats.maxWaitNanos = Math.max(stats.maxWaitNanos, waited);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Devuelve el permiso: pasa directamente al siguiente de la cola, si lo hay
+    public void release() {
+        lock.lock();
+        try {
+            Waiter next = nextWaiter();
+            if (next != null) {
+                next.admitted = true;
+                next.signal.signal();
+            } else {
+                available = Math.min(permits, available + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("permits", permits);
+            stats.put("available", available);
+            stats.put("maxQueue", maxQueue);
+            stats.put("queueDepth", queuedTotal());
+            for (Priority priority : Priority.values()) {
+                Counters c = counters.get(priority);
+                long waits = c.queued - c.rejectedTimeout;
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("queueDepth", queues.get(priority).size());
+                entry.put("admitted", c.admitted);
+                entry.put("queued", c.queued);
+                entry.put("rejectedQueueFull", c.rejectedQueueFull);
+                entry.put("rejectedTimeout", c.rejectedTimeout);
+                entry.put("avgWaitMs", waits <= 0 ? 0.0 : c.totalWaitNanos / 1_000_000.0 / waits);
+                entry.put("maxWaitMs", c.maxWaitNanos / 1_000_000.0);
+                stats.put(priority.name().toLowerCase(), entry);
+            }
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int queuedTotal() {
+        return queues.get(Priority.WRITE).size() + queues.get(Priority.READ).size();
+    }
+
+    private Waiter nextWaiter() {
+        ArrayDeque<Waiter> writes = queues.get(Priority.WRITE);
+        ArrayDeque<Waiter> reads = queues.get(Priority.READ);
+        if (!writes.isEmpty() && (reads.isEmpty() || writeStreak < writeBurst)) {
+            writeStreak++;
+            return writes.pollFirst();
+        }
+        writeStreak = 0;
+        return reads.pollFirst();
+    }
+}
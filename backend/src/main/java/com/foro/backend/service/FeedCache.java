@@ -0,0 +1,199 @@
+package com.foro.backend.service;
+
+import com.foro.backend.dto.PostDto;
+import com.foro.backend.event.PostCreatedEvent;
+import com.foro.backend.event.PostsChangedEvent;
+import com.foro.backend.event.UserProfileChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Caché en proceso de las primeras páginas del feed (GET /api/posts con cursor).
+// Guarda solo la parte que no depende del usuario; likedByUser y los likes pendientes
+// se añaden en cada respuesta. Expulsión LRU + TTL e invalidación por eventos:
+// un post nuevo invalida las primeras páginas y un cambio de contadores o de autor
+// invalida solo las páginas que contienen esos posts.
+@Component
+public class FeedCache {
+
+    // Posición de la página: before == null es la primera
+    public record Key(Long beforeId, int limit) {}
+
+    // Página renderizada sin datos del usuario (likedByUser a false)
+    public record Page(List<PostDto> posts, long[] postIds, long[] authorIds, String nextCursor) {}
+
+    private record Entry(Page page, long expiresAt) {}
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final int maxPages;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Profundidad de la página a la que apunta cada nextCursor (solo se cachean las N primeras)
+    private final LinkedHashMap<Long, Integer> depthByCursor;
+    private final Map<Long, Set<Key>> keysByPost = new HashMap<>();
+    private final Map<Long, Set<Key>> keysByAuthor = new HashMap<>();
+    // Cambia en cada invalidación: una página leída antes no se guarda después
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public FeedCache(@Value("${foro.feed-cache.enabled:true}") boolean enabled,
+                     @Value("${foro.feed-cache.max-entries:64}") int maxEntries,
+                     @Value("${foro.feed-cache.ttl-seconds:30}") long ttlSeconds,
+                     @Value("${foro.feed-cache.max-pages:5}") int maxPages) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxPages = maxPages;
+        int maxCursors = maxEntries * 4;
+        this.depthByCursor = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+                return size() > maxCursors;
+            }
+        };
+    }
+
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    public synchronized Page get(Key key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() > 0) {
+            remove(key, entry);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.page();
+    }
+
+    // Guarda la página si está entre las primeras y nada se ha invalidado desde que se leyó
+    public synchronized void put(Key key, Page page, long stamp) {
+        if (!enabled || stamp != generation) {
+            return;
+        }
+        Integer depth = key.beforeId() == null ? Integer.valueOf(0) : depthByCursor.get(key.beforeId());
+        if (depth == null || depth >= maxPages) {
+            return;
+        }
+
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            unindex(key, previous.page());
+        }
+        entries.put(key, new Entry(page, System.nanoTime() + ttlNanos));
+        for (long postId : page.postIds()) {
+            keysByPost.computeIfAbsent(postId, id -> new HashSet<>()).add(key);
+        }
+        for (long authorId : page.authorIds()) {
+            keysByAuthor.computeIfAbsent(authorId, id -> new HashSet<>()).add(key);
+        }
+        if (page.nextCursor() != null && page.postIds().length > 0) {
+            depthByCursor.put(page.postIds()[page.postIds().length - 1], depth + 1);
+        }
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            Map.Entry<Key, Entry> victim = eldest.next();
+            eldest.remove();
+            unindex(victim.getKey(), victim.getValue().page());
+            evictions++;
+        }
+    }
+
+    @EventListener
+    public synchronized void onPostCreated(PostCreatedEvent event) {
+        // Con keyset solo cambian las páginas sin cursor; las demás siguen siendo válidas
+        List<Key> firstPages = new ArrayList<>();
+        for (Key key : entries.keySet()) {
+            if (key.beforeId() == null) firstPages.add(key);
+        }
+        invalidate(firstPages);
+    }
+
+    @EventListener
+    public synchronized void onPostsChanged(PostsChangedEvent event) {
+        Set<Key> affected = new HashSet<>();
+        for (Long postId : event.postIds()) {
+            affected.addAll(keysByPost.getOrDefault(postId, Set.of()));
+        }
+        invalidate(affected);
+    }
+
+    @EventListener
+    public synchronized void onUserProfileChanged(UserProfileChangedEvent event) {
+        invalidate(new ArrayList<>(keysByAuthor.getOrDefault(event.userId(), Set.of())));
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        long lookups = hits + misses;
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return stats;
+    }
+
+    private void invalidate(Iterable<Key> keys) {
+        generation++;
+        for (Key key : keys) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                remove(key, entry);
+                invalidations++;
+            }
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        unindex(key, entry.page());
+    }
+
+    private void unindex(Key key, Page page) {
+        for (long postId : page.postIds()) {
+            removeFromIndex(keysByPost, postId, key);
+        }
+        for (long authorId : page.authorIds()) {
+            removeFromIndex(keysByAuthor, authorId, key);
+        }
+    }
+
+    private static void removeFromIndex(Map<Long, Set<Key>> index, long id, Key key) {
+        Set<Key> keys = index.get(id);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) index.remove(id);
+        }
+    }
+}
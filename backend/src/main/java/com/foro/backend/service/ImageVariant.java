@@ -0,0 +1,57 @@
+package com.foro.backend.service;
+
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Tamaños fijos que se generan de cada imagen subida (al doble del tamaño en pantalla)
+public enum ImageVariant {
+    // Imagen de post y portada de artículo en el feed (se muestran a 400px)
+    FEED("feed", 800, false),
+    // Avatar (se muestra a 48px en todas partes), recortado cuadrado
+    AVATAR("avatar", 96, true);
+
+    // Solo las subidas direccionadas por contenido tienen variantes: .../uploads/<sha256>.<ext>
+    private static final Pattern BLOB_URL = Pattern.compile("^(.*/)([0-9a-f]{64}\\.[a-z0-9]+)$");
+
+    private final String directory;
+    private final int size;
+    private final boolean square;
+
+    ImageVariant(String directory, int size, boolean square) {
+        this.directory = directory;
+        this.size = size;
+        this.square = square;
+    }
+
+    public String directory() { return directory; }
+    public int size() { return size; }
+    public boolean square() { return square; }
+
+    public static ImageVariant fromDirectory(String directory) {
+        for (ImageVariant variant : values()) {
+            if (variant.directory.equals(directory)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    // Fichero de la variante dentro del directorio de subidas
+    public Path pathIn(Path uploadDir, String fileName) {
+        return uploadDir.resolve("variants").resolve(directory).resolve(fileName);
+    }
+
+    // URL de la variante: .../uploads/variants/<variante>/<sha256>.<ext>.
+    // Mientras no esté generada, WebConfig sirve el original en esa misma URL.
+    public String urlFor(String originalUrl) {
+        if (originalUrl == null) {
+            return null;
+        }
+        Matcher matcher = BLOB_URL.matcher(originalUrl);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return matcher.group(1) + "variants/" + directory + "/" + matcher.group(2);
+    }
+}
@@ -0,0 +1,204 @@
+package com.foro.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Genera en segundo plano las variantes de tamaño fijo (ImageVariant) de cada subida.
+// Corre en un pool acotado: si la cola está llena la variante se descarta y se sigue
+// sirviendo el original (WebConfig lo devuelve en la URL de la variante).
+// GIF (animados) y WebP (ImageIO no los lee) se quedan siempre con el original.
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final UploadStorageService uploadStorage;
+    private final ThreadPoolExecutor executor;
+
+    public ImageVariantService(UploadStorageService uploadStorage,
+                               @Value("${foro.images.variant-threads:2}") int threads,
+                               @Value("${foro.images.variant-queue:200}") int queueSize) {
+        this.uploadStorage = uploadStorage;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), runnable -> {
+                Thread thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Encola la generación de las variantes de una subida recién guardada
+    public void schedule(UploadStorageService.StoredUpload upload, ImageVariant... variants) {
+        if (!isResizable(upload.type())) {
+            return;
+        }
+        for (ImageVariant variant : variants) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        generate(upload.fileName(), upload.type(), variant);
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("No se pudo generar la variante {} de {}", variant, upload.fileName(), e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Cola de variantes llena, se sirve el original de {}", upload.fileName());
+            }
+        }
+    }
+
+    // Genera una variante; devuelve false si no hace falta (ya existe o el original es más pequeño)
+    boolean generate(String fileName, UploadStorageService.ImageType type, ImageVariant variant) throws IOException {
+        Path target = variant.pathIn(uploadStorage.uploadDir(), fileName);
+        if (Files.exists(target)) {
+            return false;
+        }
+
+        BufferedImage source = read(uploadStorage.uploadDir().resolve(fileName), variant);
+        if (source == null) {
+            return false;
+        }
+        BufferedImage resized = resize(source, variant, type == UploadStorageService.ImageType.PNG);
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), fileName, ".part");
+        try {
+            write(resized, type, temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Generada a la vez por otra subida del mismo fichero
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static boolean isResizable(UploadStorageService.ImageType type) {
+        return type == UploadStorageService.ImageType.JPEG || type == UploadStorageService.ImageType.PNG;
+    }
+
+    // Decodifica con submuestreo para no tener en memoria la imagen completa a 10 MB de JPEG
+    private static BufferedImage read(Path original, ImageVariant variant) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Lado que se escala: el ancho, o el lado corto si la variante es cuadrada
+                int width = reader.getWidth(0);
+                int side = variant.square() ? Math.min(width, reader.getHeight(0)) : width;
+                if (side <= variant.size()) {
+                    // Ya es pequeña: la fallback al original es la variante
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Se deja el doble de píxeles del destino para que el escalado final suavice
+                int step = Math.max(1, side / (variant.size() * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, ImageVariant variant, boolean keepAlpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int outWidth;
+        int outHeight;
+        int cropX = 0;
+        int cropY = 0;
+        int cropWidth = width;
+        int cropHeight = height;
+
+        if (variant.square()) {
+            // Recorte cuadrado centrado
+            int side = Math.min(width, height);
+            cropX = (width - side) / 2;
+            cropY = (height - side) / 2;
+            cropWidth = side;
+            cropHeight = side;
+            outWidth = variant.size();
+            outHeight = variant.size();
+        } else {
+            outWidth = Math.min(variant.size(), width);
+            outHeight = Math.max(1, Math.round(height * (outWidth / (float) width)));
+        }
+
+        BufferedImage out = new BufferedImage(outWidth, outHeight,
+            keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(source, 0, 0, outWidth, outHeight,
+                cropX, cropY, cropX + cropWidth, cropY + cropHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static void write(BufferedImage image, UploadStorageService.ImageType type, Path target) throws IOException {
+        if (type == UploadStorageService.ImageType.PNG) {
+            ImageIO.write(image, "png", target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
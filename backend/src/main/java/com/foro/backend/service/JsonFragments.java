@@ -0,0 +1,124 @@
+package com.foro.backend.service;
+
+import com.foro.backend.dto.ArticlePreviewDto;
+import com.foro.backend.dto.ArticlePreviewView;
+import com.foro.backend.dto.AuthorDto;
+import com.foro.backend.event.ArticleDeletedEvent;
+import com.foro.backend.event.UserProfileChangedEvent;
+import com.foro.backend.model.Article;
+import com.foro.backend.model.User;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.util.RawValue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Fragmentos JSON ya serializados de las partes inmutables de las respuestas
+// (bloque de autor, previews de artículos). Se serializan una vez y Jackson los copia
+// tal cual en cada respuesta; se invalidan con los eventos de cambio de perfil o borrado.
+// Como en FeedCache, cada caché lleva una generación: un fragmento renderizado mientras llegaba
+// una invalidación no se guarda.
+@Component
+public class JsonFragments {
+
+    private static final int MAX_AUTHORS = 10_000;
+    private static final int MAX_ARTICLE_PREVIEWS = 2_000;
+
+    private final ObjectMapper objectMapper;
+    private final Fragments authors = new Fragments(MAX_AUTHORS);
+    private final Fragments articlePreviews = new Fragments(MAX_ARTICLE_PREVIEWS);
+
+    public JsonFragments(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public RawValue author(User user) {
+        if (user == null) {
+            return null;
+        }
+        return authors.cached(user.getId(), () -> serialize(AuthorDto.from(user)));
+    }
+
+    public RawValue articlePreview(Article article) {
+        return articlePreviews.cached(article.getId(), () -> serialize(ArticlePreviewDto.from(article)));
+    }
+
+    // Preview ya serializada, o null si no está en caché
+    public RawValue cachedArticlePreview(long articleId) {
+        return articlePreviews.get(articleId);
+    }
+
+    public RawValue articlePreview(ArticlePreviewView row) {
+        return articlePreviews.cached(row.id(), () -> serialize(ArticlePreviewDto.from(row)));
+    }
+
+    @EventListener
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        authors.remove(event.userId());
+        // El nombre del autor va dentro de las previews; cambia muy pocas veces
+        articlePreviews.clear();
+    }
+
+    @EventListener
+    public void onArticleDeleted(ArticleDeletedEvent event) {
+        articlePreviews.remove(event.articleId());
+    }
+
+    private RawValue serialize(Object value) {
+        return new RawValue(objectMapper.writeValueAsString(value));
+    }
+
+    private static final class Fragments {
+        private final Map<Long, RawValue> entries;
+        // Invalidaciones hechas; solo con el lock de la instancia
+        private long generation;
+
+        Fragments(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, RawValue> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        // Se renderiza fuera del lock; se guarda solo si no ha habido invalidaciones mientras tanto
+        RawValue cached(Long id, Supplier<RawValue> render) {
+            if (id == null) {
+                return render.get();
+            }
+            long stamp;
+            synchronized (this) {
+                RawValue fragment = entries.get(id);
+                if (fragment != null) {
+                    return fragment;
+                }
+                stamp = generation;
+            }
+            RawValue fragment = render.get();
+            synchronized (this) {
+                if (stamp == generation) {
+                    entries.put(id, fragment);
+                }
+            }
+            return fragment;
+        }
+
+        synchronized RawValue get(long id) {
+            return entries.get(id);
+        }
+
+        synchronized void remove(long id) {
+            generation++;
+            entries.remove(id);
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+    }
+}
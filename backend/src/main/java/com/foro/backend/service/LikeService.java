@@ -0,0 +1,113 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.PostsChangedEvent;
+import com.foro.backend.model.PostLike;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Toggle de likes sin actualizaciones perdidas.
+// La fila de post_likes es la fuente de verdad: el contador solo se mueve cuando
+// el DELETE o el INSERT realmente han cambiado una fila, y siempre en la misma transacción.
+// En modo write-behind los toggles pasan por LikeWriteBehindBuffer y las lecturas
+// incorporan lo que aún está pendiente de escribir.
+@Service
+public class LikeService {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeService.class);
+
+    // Fecha de los likes de antes de existir createdAt (la misma que el default de la columna)
+    private static final LocalDateTime LEGACY_LIKED_AT = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final PostLikeRepository postLikeRepository;
+    private final PostRepository postRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LikeWriteBehindBuffer writeBehindBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserStatsService userStats;
+
+    public LikeService(PostLikeRepository postLikeRepository, PostRepository postRepository,
+                       PlatformTransactionManager transactionManager, LikeWriteBehindBuffer writeBehindBuffer,
+                       ApplicationEventPublisher eventPublisher, UserStatsService userStats) {
+        this.postLikeRepository = postLikeRepository;
+        this.postRepository = postRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehindBuffer = writeBehindBuffer;
+        this.eventPublisher = eventPublisher;
+        this.userStats = userStats;
+    }
+
+    // Likes que quedaron sin fecha en bases donde la columna se creó nullable, antes del default:
+    // se rellenan una vez al arrancar; en el resto de arranques solo se comprueba que no queda ninguno
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCreatedAt() {
+        if (!postLikeRepository.existsByCreatedAtIsNull()) {
+            return;
+        }
+        int filled = postLikeRepository.backfillCreatedAt(LEGACY_LIKED_AT);
+        log.info("Fecha por defecto asignada a {} likes antiguos", filled);
+    }
+
+    // Devuelve si el post queda likeado por el usuario
+    public boolean toggle(Long userId, Long postId) {
+        if (writeBehindBuffer.isEnabled()) {
+            return writeBehindBuffer.toggle(userId, postId);
+        }
+
+        // Quitar like: solo quien borra la fila decrementa
+        Boolean unliked = transactionTemplate.execute(status -> {
+            int removed = postLikeRepository.deleteLike(userId, postId);
+            if (removed == 0) {
+                return false;
+            }
+            postRepository.addToLikes(postId, -removed);
+            userStats.likesReceivedChanged(postId, -removed);
+            return true;
+        });
+        if (Boolean.TRUE.equals(unliked)) {
+            eventPublisher.publishEvent(new PostsChangedEvent(List.of(postId)));
+            return false;
+        }
+
+        // Dar like: si un doble click simultáneo ya insertó la fila, el resultado es el mismo
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                postLikeRepository.saveAndFlush(new PostLike(userId, postId));
+                postRepository.addToLikes(postId, 1);
+                userStats.likesReceivedChanged(postId, 1);
+            });
+            eventPublisher.publishEvent(new PostsChangedEvent(List.of(postId)));
+        } catch (DataIntegrityViolationException e) {
+            // La restricción única (userId, postId) ya garantiza un solo like
+        }
+        return true;
+    }
+
+    // Contador a mostrar: el de la base de datos más los likes aún no volcados
+    public int visibleLikes(Long postId, int storedLikes) {
+        if (!writeBehindBuffer.isEnabled()) {
+            return storedLikes;
+        }
+        return Math.max(0, storedLikes + writeBehindBuffer.pendingDelta(postId));
+    }
+
+    // Si el usuario ve su like: lo pendiente manda sobre lo guardado
+    public boolean visibleLiked(Long userId, Long postId, boolean storedLiked) {
+        if (userId == null || !writeBehindBuffer.isEnabled()) {
+            return storedLiked;
+        }
+        Boolean pending = writeBehindBuffer.pendingState(userId, postId);
+        return pending != null ? pending : storedLiked;
+    }
+}
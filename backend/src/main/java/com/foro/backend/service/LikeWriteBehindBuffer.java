@@ -0,0 +1,426 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.PostsChangedEvent;
+import com.foro.backend.model.PostLike;
+import com.foro.backend.repository.PostLikeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Modo write-behind para los likes (foro.likes.write-behind.enabled).
+// Los toggles se guardan en memoria, repartidos en stripes por post; un like y su unlike
+// del mismo usuario se anulan antes de llegar a la base de datos. Un flusher periódico
+// escribe los inserts/deletes de post_likes y los deltas de contador en lotes JDBC.
+// Una fila que choca con una restricción (like ya existente, post borrado) se aísla partiendo
+// el lote y se descarta; ante cualquier otro fallo el lote vuelve al buffer y los reintentos se
+// espacian. Con el buffer lleno y sin poder vaciarlo, el toggle se rechaza con 503.
+@Component
+public class LikeWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeWriteBehindBuffer.class);
+
+    private static final int JDBC_BATCH_SIZE = 100;
+    // Espera entre volcados fallidos: se dobla en cada fallo seguido hasta el máximo
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    // Lo que un toggle espera al volcado de otro hilo antes de rendirse con el buffer lleno
+    private static final long BACKPRESSURE_WAIT_MILLIS = 2_000;
+
+    private record Key(long userId, long postId) {}
+
+    // Estado deseado (true = like) por par usuario/post; solo existe si difiere del de la base de datos
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Key, Boolean> pending = new HashMap<>();
+        // Lo que el flusher está escribiendo ahora mismo; sigue visible para las lecturas
+        final Map<Key, Boolean> inflight = new HashMap<>();
+        // Delta de likes pendiente por post (pending + inflight)
+        final Map<Long, Integer> deltaByPost = new HashMap<>();
+        // Volcados terminados que tocaron este stripe; si cambia, lo leído de la base de datos puede estar viejo
+        volatile long written;
+    }
+
+    private final PostLikeRepository postLikeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final boolean enabled;
+    private final int maxPending;
+    private final Stripe[] stripes;
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final int retryAfterSeconds;
+    // Solo con flushLock
+    private int consecutiveFailures;
+    private long retryNotBefore;
+
+    public LikeWriteBehindBuffer(PostLikeRepository postLikeRepository, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                 @Value("${foro.likes.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${foro.likes.write-behind.max-pending:10000}") int maxPending,
+                                 @Value("${foro.likes.write-behind.stripes:64}") int stripeCount,
+                                 @Value("${foro.db.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.postLikeRepository = postLikeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Registra un toggle y devuelve si el post queda likeado
+    public boolean toggle(long userId, long postId) {
+        // Backpressure: con el buffer lleno, el que llama lo vacía (o espera a quien lo esté vaciando).
+        // Si la base de datos no admite el volcado, 503 en lugar de seguir acumulando
+        if (pendingCount.get() >= maxPending && !flushIfDue(BACKPRESSURE_WAIT_MILLIS, maxPending)) {
+            throw new TransientDataAccessResourceException("Buffer de likes lleno",
+                new DbAdmission.SaturatedException("buffer de likes lleno", retryAfterSeconds));
+        }
+
+        Key key = new Key(userId, postId);
+        Stripe stripe = stripeFor(postId);
+        while (true) {
+            // La consulta va fuera del lock para no hacer esperar al resto de toggles del stripe
+            long written = stripe.written;
+            boolean stored = postLikeRepository.existsByUserIdAndPostId(userId, postId);
+            stripe.lock.lock();
+            try {
+                Boolean pendingTarget = stripe.pending.remove(key);
+                if (pendingTarget != null) {
+                    // like + unlike del mismo usuario: se anulan
+                    addDelta(stripe, postId, pendingTarget ? -1 : 1);
+                    pendingCount.decrementAndGet();
+                    return !pendingTarget;
+                }
+
+                Boolean inflightTarget = stripe.inflight.get(key);
+                if (inflightTarget == null && stripe.written != written) {
+                    // Un volcado terminó mientras se consultaba: se vuelve a leer
+                    continue;
+                }
+                boolean target = !(inflightTarget != null ? inflightTarget : stored);
+
+                stripe.pending.put(key, target);
+                addDelta(stripe, postId, target ? 1 : -1);
+                pendingCount.incrementAndGet();
+                return target;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    // Likes que todavía no están en la base de datos (puede ser negativo)
+    public int pendingDelta(long postId) {
+        Stripe stripe = stripeFor(postId);
+        stripe.lock.lock();
+        try {
+            return stripe.deltaByPost.getOrDefault(postId, 0);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Estado pendiente del like de un usuario, o null si no hay nada pendiente
+    public Boolean pendingState(long userId, long postId) {
+        Key key = new Key(userId, postId);
+        Stripe stripe = stripeFor(postId);
+        stripe.lock.lock();
+        try {
+            Boolean target = stripe.pending.get(key);
+            return target != null ? target : stripe.inflight.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        return pendingCount.get();
+    }
+
+    @Scheduled(fixedDelayString = "${foro.likes.write-behind.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flushIfDue(0, 1);
+        }
+    }
+
+    // Vacía el buffer si tiene al menos minPending toggles y devuelve si ha quedado en condiciones
+    // de aceptar más: falso si otro hilo lleva más de waitMillis vaciándolo, si se está esperando
+    // tras un fallo o si el volcado ha fallado. Tras esperar al volcado de otro hilo se vuelve a
+    // mirar el tamaño, para que los que esperaban no lo vacíen uno detrás de otro
+    private boolean flushIfDue(long waitMillis, int minPending) {
+        try {
+            if (!flushLock.tryLock(waitMillis, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            if (pendingCount.get() < minPending) {
+                return true;
+            }
+            if (System.nanoTime() - retryNotBefore < 0) {
+                return false;
+            }
+            flushLocked();
+            return consecutiveFailures == 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Escribe todo lo pendiente; lo que falle por un error transitorio vuelve al buffer
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushLocked();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        Map<Key, Boolean> batch = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.inflight.putAll(stripe.pending);
+                batch.putAll(stripe.pending);
+                pendingCount.addAndGet(-stripe.pending.size());
+                stripe.pending.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Set<Key> retry = new HashSet<>();
+        writeIsolatingFailures(new ArrayList<>(batch.entrySet()), retry);
+        settle(retry);
+
+        if (retry.isEmpty()) {
+            consecutiveFailures = 0;
+            retryNotBefore = System.nanoTime();
+        } else {
+            consecutiveFailures++;
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(consecutiveFailures - 1, 16));
+            retryNotBefore = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
+        }
+    }
+
+    // Escribe el lote en una transacción; si choca con una restricción lo parte en dos hasta dar
+    // con las filas culpables, que se descartan. Otros errores dejan el lote en retry.
+    private void writeIsolatingFailures(List<Map.Entry<Key, Boolean>> rows, Set<Key> retry) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(rows));
+        } catch (DataIntegrityViolationException e) {
+            if (rows.size() == 1) {
+                Map.Entry<Key, Boolean> row = rows.get(0);
+                log.warn("Se descarta el {} del usuario {} al post {}: {}", row.getValue() ? "like" : "unlike",
+                    row.getKey().userId(), row.getKey().postId(), e.getMostSpecificCause().getMessage());
+                return;
+            }
+            int half = rows.size() / 2;
+            writeIsolatingFailures(rows.subList(0, half), retry);
+            writeIsolatingFailures(rows.subList(half, rows.size()), retry);
+        } catch (RuntimeException e) {
+            if (consecutiveFailures == 0) {
+                log.warn("Fallo al volcar {} likes pendientes; se reintentará", rows.size(), e);
+            } else {
+                log.warn("Fallo al volcar {} likes pendientes ({} seguidos); se reintentará: {}",
+                    rows.size(), consecutiveFailures + 1, e.toString());
+            }
+            for (Map.Entry<Key, Boolean> row : rows) {
+                retry.add(row.getKey());
+            }
+        }
+    }
+
+    private void write(List<Map.Entry<Key, Boolean>> batch) {
+        List<PostLike> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Map.Entry<Key, Boolean> entry : batch) {
+            Key key = entry.getKey();
+            if (entry.getValue()) {
+                inserts.add(new PostLike(key.userId(), key.postId()));
+            } else {
+                deletes.add(new Object[] { key.userId(), key.postId() });
+            }
+        }
+
+        Map<Long, Integer> counterDeltas = new HashMap<>();
+
+        if (!inserts.isEmpty()) {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+            postLikeRepository.saveAll(inserts);
+            postLikeRepository.flush();
+            for (PostLike like : inserts) {
+                counterDeltas.merge(like.getPostId(), 1, Integer::sum);
+            }
+        }
+
+        if (!deletes.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(
+                "delete from post_likes where user_id = ? and post_id = ?", deletes, JDBC_BATCH_SIZE,
+                (ps, args) -> {
+                    ps.setLong(1, (Long) args[0]);
+                    ps.setLong(2, (Long) args[1]);
+                });
+            // Algunos drivers no informan de las filas por sentencia en modo batch: esos posts se recuentan
+            Set<Long> unknown = new HashSet<>();
+            int i = 0;
+            for (int[] chunk : counts) {
+                for (int count : chunk) {
+                    Long postId = (Long) deletes.get(i++)[1];
+                    if (count == Statement.SUCCESS_NO_INFO) {
+                        unknown.add(postId);
+                    } else {
+                        counterDeltas.merge(postId, -count, Integer::sum);
+                    }
+                }
+            }
+            if (!unknown.isEmpty()) {
+                recountDeltas(unknown, counterDeltas);
+            }
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        counterDeltas.forEach((postId, delta) -> {
+            if (delta != 0) updates.add(new Object[] { delta, delta, postId });
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "update post set likes = case when likes + ? < 0 then 0 else likes + ? end where id = ?",
+            updates, JDBC_BATCH_SIZE,
+            (ps, args) -> {
+                ps.setInt(1, (Integer) args[0]);
+                ps.setInt(2, (Integer) args[1]);
+                ps.setLong(3, (Long) args[2]);
+            });
+        // Likes recibidos de cada autor (user_stats), con los mismos deltas
+        jdbcTemplate.batchUpdate(
+            "update user_stats set likes_received = case when likes_received + ? < 0 then 0 else likes_received + ? end "
+                + "where user_id = (select p.user_id from post p where p.id = ?)",
+            updates, JDBC_BATCH_SIZE,
+            (ps, args) -> {
+                ps.setInt(1, (Integer) args[0]);
+                ps.setInt(2, (Integer) args[1]);
+                ps.setLong(3, (Long) args[2]);
+            });
+    }
+
+    // Delta de cada post = likes reales (ya con los inserts y deletes de este lote) - contador guardado
+    private void recountDeltas(Set<Long> postIds, Map<Long, Integer> counterDeltas) {
+        String placeholders = String.join(",", Collections.nCopies(postIds.size(), "?"));
+        jdbcTemplate.query(
+            "select p.id, p.likes, (select count(*) from post_likes l where l.post_id = p.id) "
+                + "from post p where p.id in (" + placeholders + ")",
+            rs -> {
+                counterDeltas.put(rs.getLong(1), rs.getInt(3) - rs.getInt(2));
+            },
+            postIds.toArray());
+    }
+
+    // Fin del volcado: lo escrito (o descartado) deja de estar en vuelo; lo de retry vuelve a
+    // pendiente, combinándolo con los toggles que llegaron mientras tanto
+    private void settle(Set<Key> retry) {
+        Set<Long> flushedPosts = new HashSet<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                boolean wrote = false;
+                for (Map.Entry<Key, Boolean> entry : stripe.inflight.entrySet()) {
+                    Key key = entry.getKey();
+                    if (!retry.contains(key)) {
+                        addDelta(stripe, key.postId(), entry.getValue() ? -1 : 1);
+                        flushedPosts.add(key.postId());
+                        wrote = true;
+                        continue;
+                    }
+                    Boolean newer = stripe.pending.remove(key);
+                    if (newer != null) {
+                        // El usuario volvió al estado original mientras se escribía: se anulan
+                        addDelta(stripe, key.postId(), (entry.getValue() ? -1 : 1) + (newer ? -1 : 1));
+                        pendingCount.decrementAndGet();
+                    } else {
+                        stripe.pending.put(key, entry.getValue());
+                        pendingCount.incrementAndGet();
+                    }
+                }
+                stripe.inflight.clear();
+                if (wrote) {
+                    stripe.written++;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        if (!flushedPosts.isEmpty()) {
+            eventPublisher.publishEvent(new PostsChangedEvent(flushedPosts));
+        }
+    }
+
+    // Vaciar el buffer al parar la aplicación
+    @PreDestroy
+    public void drain() {
+        int attempts = 0;
+        while (pendingCount.get() > 0 && attempts++ < 3) {
+            flush();
+        }
+        if (pendingCount.get() > 0) {
+            log.error("Se pierden {} likes pendientes al parar la aplicación", pendingCount.get());
+        }
+    }
+
+    private void addDelta(Stripe stripe, long postId, int delta) {
+        stripe.deltaByPost.merge(postId, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private Stripe stripeFor(long postId) {
+        return stripes[Long.hashCode(postId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+    }
+}
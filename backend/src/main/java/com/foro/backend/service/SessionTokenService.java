@@ -0,0 +1,146 @@
+package com.foro.backend.service;
+
+import com.foro.backend.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Tokens de sesión sin estado: "<payload>.<firma>" en base64url, con payload "id:rol:expiración"
+// firmado con HMAC-SHA256. Verificar uno no toca la base de datos, y los ya verificados se
+// guardan en un LRU para no recalcular la firma en cada petición.
+// Un cambio de rol no llega a los tokens ya emitidos hasta que caducan (foro.auth.token-ttl-hours).
+@Service
+public class SessionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record Claims(long userId, String role, long expiresAt) {
+        public boolean isAdmin() {
+            return "ADMIN".equals(role);
+        }
+
+        boolean isExpired(long nowSeconds) {
+            return expiresAt <= nowSeconds;
+        }
+    }
+
+    // Mac no es thread-safe: cada uso clona este prototipo ya inicializado
+    private final Mac prototype;
+    private final Duration ttl;
+    private final boolean requireToken;
+    private final Map<String, Claims> verified;
+
+    public SessionTokenService(@Value("${foro.auth.token-secret:}") String secret,
+                               @Value("${foro.auth.token-ttl-hours:24}") long ttlHours,
+                               @Value("${foro.auth.require-token:false}") boolean requireToken,
+                               @Value("${foro.auth.token-cache-size:10000}") int cacheSize) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            log.warn("foro.auth.token-secret no configurado: clave aleatoria, los tokens no sobreviven a un reinicio");
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        this.ttl = Duration.ofHours(ttlHours);
+        this.requireToken = requireToken;
+        this.verified = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public String issue(User user) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        byte[] payload = (user.getId() + ":" + user.getRole() + ":" + expiresAt).getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // Claims de un token válido y sin caducar, o null
+    public Claims verify(String token) {
+        long now = Instant.now().getEpochSecond();
+        Claims claims = verified.get(token);
+        if (claims != null) {
+            if (!claims.isExpired(now)) {
+                return claims;
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        claims = parse(token);
+        if (claims == null || claims.isExpired(now)) {
+            return null;
+        }
+        verified.put(token, claims);
+        return claims;
+    }
+
+    // Usuario que actúa en una petición: el del token o, mientras se admita, el userId que manda el cliente
+    public Long actingUser(Claims claims, Long requestUserId) {
+        if (claims != null) {
+            return claims.userId();
+        }
+        return requireToken ? null : requestUserId;
+    }
+
+    public boolean isTokenRequired() {
+        return requireToken;
+    }
+
+    private Claims parse(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return null;
+            }
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            return new Claims(Long.parseLong(parts[0]), parts[1], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(payload);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.foro.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sentencias SQL, filas leídas y tiempo de base de datos por petición HTTP, agregados por endpoint en
+// histogramas de cubos fijos. Los cuenta SqlStatementCountingDataSource; el filtro de
+// SqlStatementStatsConfig abre el contador al empezar la petición y lo registra al acabar.
+// Si una petición ejecuta la misma sentencia (misma forma, sin los valores) más de
+// n-plus-one-threshold veces se avisa en el log: es la huella de un N+1.
+@Component
+public class SqlStatementStats {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementStats.class);
+
+    // Límites superiores de los cubos; el último cubo es "más que el último límite"
+    private static final int[] STATEMENT_BUCKETS = {0, 1, 2, 5, 10, 20, 50, 100};
+    private static final int[] MILLIS_BUCKETS = {1, 5, 10, 25, 50, 100, 250, 1000};
+    private static final int[] ROW_BUCKETS = {0, 10, 50, 100, 500, 1000, 5000, 10000};
+    private static final int MAX_SHAPE_LOG_LENGTH = 200;
+
+    // Contador de una petición; solo lo usa el hilo que la atiende
+    public static final class RequestCounter {
+        private int statements;
+        private long nanos;
+        private long rows;
+        private final Map<String, Integer> shapes = new HashMap<>();
+
+        public void record(String shape, long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        public void recordRow() {
+            rows++;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+
+    // Cubos por límite superior; los valores se guardan en la unidad base (sentencias, filas o
+    // microsegundos) y se muestran divididos entre scale
+    private static final class Histogram {
+        final int[] bounds;
+        final double scale;
+        final long[] counts;
+        long total;
+        long max;
+
+        Histogram(int[] bounds, double scale) {
+            this.bounds = bounds;
+            this.scale = scale;
+            this.counts = new long[bounds.length + 1];
+        }
+
+        void add(long value) {
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket] * scale) {
+                bucket++;
+            }
+            counts[bucket]++;
+            total += value;
+            max = Math.max(max, value);
+        }
+
+        Map<String, Object> toMap(long requests) {
+            Map<String, Object> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < bounds.length; i++) {
+                buckets.put("<=" + bounds[i], counts[i]);
+            }
+            buckets.put(">" + bounds[bounds.length - 1], counts[bounds.length]);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("avg", requests == 0 ? 0.0 : total / scale / requests);
+            map.put("max", max / scale);
+            map.put("buckets", buckets);
+            return map;
+        }
+    }
+
+    private static final class Endpoint {
+        long requests;
+        long nPlusOneRequests;
+        final Histogram statements = new Histogram(STATEMENT_BUCKETS, 1);
+        final Histogram rows = new Histogram(ROW_BUCKETS, 1);
+        // En microsegundos para no perder las consultas de menos de un milisegundo
+        final Histogram dbTime = new Histogram(MILLIS_BUCKETS, 1_000);
+    }
+
+    private final int nPlusOneThreshold;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public SqlStatementStats(@Value("${foro.sql.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    // Registra una petición terminada; devuelve las formas repetidas por encima del umbral
+    public List<String> record(String endpoint, RequestCounter counter) {
+        List<String> repeated = new ArrayList<>();
+        counter.shapes.forEach((shape, times) -> {
+            if (times > nPlusOneThreshold) {
+                repeated.add(shape);
+                log.warn("Posible N+1 en {}: {} ejecuciones de «{}»", endpoint, times, abbreviate(shape));
+            }
+        });
+
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        synchronized (stats) {
+            stats.requests++;
+            if (!repeated.isEmpty()) {
+                stats.nPlusOneRequests++;
+            }
+            stats.statements.add(counter.statements);
+            stats.rows.add(counter.rows);
+            stats.dbTime.add(counter.nanos / 1_000);
+        }
+        return repeated;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nPlusOneThreshold", nPlusOneThreshold);
+        Map<String, Object> byEndpoint = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> {
+            synchronized (endpoint) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("requests", endpoint.requests);
+                entry.put("nPlusOneRequests", endpoint.nPlusOneRequests);
+                entry.put("statements", endpoint.statements.toMap(endpoint.requests));
+                entry.put("rows", endpoint.rows.toMap(endpoint.requests));
+                entry.put("dbTimeMs", endpoint.dbTime.toMap(endpoint.requests));
+                byEndpoint.put(name, entry);
+            }
+        });
+        stats.put("endpoints", byEndpoint);
+        return stats;
+    }
+
+    private static String abbreviate(String shape) {
+        return shape.length() <= MAX_SHAPE_LOG_LENGTH ? shape : shape.substring(0, MAX_SHAPE_LOG_LENGTH) + "…";
+    }
+}
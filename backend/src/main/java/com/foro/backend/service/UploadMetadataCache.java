@@ -0,0 +1,135 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.UploadDeletedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Metadatos de los ficheros de /uploads (ruta, tamaño, tipo, ETag) en un LRU, para que
+// servir una imagen no necesite ni un stat. Los ficheros subidos nunca cambian: la entrada
+// solo se invalida cuando el GC borra el fichero (UploadDeletedEvent).
+@Component
+public class UploadMetadataCache {
+
+    // ETag fuerte: en las subidas nuevas es el propio SHA-256 del nombre
+    private static final Pattern BLOB_NAME = Pattern.compile("^([0-9a-f]{64})\\.[a-z0-9]+$");
+
+    // immutable = false solo cuando se sirve el original en la URL de una variante aún no generada
+    public record FileMeta(Path path, long size, String etag, MediaType contentType, boolean immutable) {}
+
+    private final Path uploadDir;
+    private final Map<String, FileMeta> entries;
+
+    public UploadMetadataCache(UploadStorageService uploadStorage,
+                               @Value("${foro.uploads.metadata-cache-size:10000}") int maxEntries) {
+        this.uploadDir = uploadStorage.uploadDir();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FileMeta> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // Metadatos de una ruta relativa a /uploads/, o null si no existe o no se puede servir
+    public FileMeta lookup(String relativePath) throws IOException {
+        FileMeta meta = entries.get(relativePath);
+        if (meta != null) {
+            return meta;
+        }
+        if (!isSafe(relativePath)) {
+            return null;
+        }
+
+        String[] segments = relativePath.split("/");
+        if (segments.length == 3 && segments[0].equals("variants")) {
+            ImageVariant variant = ImageVariant.fromDirectory(segments[1]);
+            if (variant == null) {
+                return null;
+            }
+            Matcher matcher = BLOB_NAME.matcher(segments[2]);
+            if (!matcher.matches()) {
+                return null;
+            }
+            meta = describe(variant.pathIn(uploadDir, segments[2]), matcher.group(1) + "-" + variant.directory(), true);
+            if (meta == null) {
+                // Variante pendiente: el original, sin cachear ni marcar como inmutable
+                return describe(uploadDir.resolve(segments[2]), matcher.group(1), false);
+            }
+        } else if (segments.length == 1) {
+            Path path = uploadDir.resolve(segments[0]);
+            Matcher matcher = BLOB_NAME.matcher(segments[0]);
+            meta = describe(path, matcher.matches() ? matcher.group(1) : null, true);
+        }
+
+        if (meta != null) {
+            entries.put(relativePath, meta);
+        }
+        return meta;
+    }
+
+    public void evict(String relativePath) {
+        entries.remove(relativePath);
+    }
+
+    @EventListener
+    public void onUploadDeleted(UploadDeletedEvent event) {
+        entries.remove(event.fileName());
+        for (ImageVariant variant : ImageVariant.values()) {
+            entries.remove("variants/" + variant.directory() + "/" + event.fileName());
+        }
+    }
+
+    // Sin "..", sin ficheros ocultos (.tmp) y sin separadores raros
+    private static boolean isSafe(String relativePath) {
+        if (relativePath.isEmpty() || relativePath.contains("\\")) {
+            return false;
+        }
+        for (String segment : relativePath.split("/")) {
+            if (segment.isEmpty() || segment.startsWith(".")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // hash = null: subida antigua con nombre UUID, el ETag se calcula una vez del contenido
+    private static FileMeta describe(Path path, String hash, boolean immutable) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        String tag = hash != null ? hash : sha256(path);
+        MediaType contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+            .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return new FileMeta(path, Files.size(path), "\"" + tag + "\"", contentType, immutable);
+    }
+
+    private static String sha256(Path path) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
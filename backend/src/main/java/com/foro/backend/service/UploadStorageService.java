@@ -0,0 +1,294 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.UploadDeletedEvent;
+import com.foro.backend.model.StoredBlob;
+import com.foro.backend.repository.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Almacén de subidas direccionado por contenido.
+// Cada fichero se guarda como uploads/<sha256>.<ext>: la misma imagen subida N veces ocupa
+// un solo fichero y las resubidas no escriben nada en disco. El tipo se decide por los
+// magic bytes, no por el nombre que manda el cliente. StoredBlob lleva la cuenta de
+// referencias y un GC periódico borra los ficheros que nadie usa.
+@Service
+public class UploadStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadStorageService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 12;
+    private static final int GC_BATCH = 500;
+
+    // Nombre de los ficheros gestionados por este servicio (el resto son subidas antiguas)
+    private static final Pattern BLOB_NAME = Pattern.compile("([0-9a-f]{64})\\.[a-z0-9]+$");
+
+    // Formatos de imagen aceptados, reconocidos por su cabecera
+    public enum ImageType {
+        JPEG("image/jpeg", "jpg"),
+        PNG("image/png", "png"),
+        GIF("image/gif", "gif"),
+        WEBP("image/webp", "webp");
+
+        private final String contentType;
+        private final String extension;
+
+        ImageType(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() { return contentType; }
+        public String extension() { return extension; }
+
+        static ImageType sniff(byte[] header, int length) {
+            if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) return JPEG;
+            if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return PNG;
+            if (startsWith(header, length, 0, 'G', 'I', 'F', '8', '7', 'a')
+                || startsWith(header, length, 0, 'G', 'I', 'F', '8', '9', 'a')) return GIF;
+            if (startsWith(header, length, 0, 'R', 'I', 'F', 'F')
+                && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) return WEBP;
+            return null;
+        }
+
+        private static boolean startsWith(byte[] header, int length, int offset, int... expected) {
+            if (length < offset + expected.length) return false;
+            for (int i = 0; i < expected.length; i++) {
+                if ((header[offset + i] & 0xFF) != expected[i]) return false;
+            }
+            return true;
+        }
+    }
+
+    // Resultado de una subida; cada uno es una referencia nueva que hay que liberar con release()
+    public record StoredUpload(String hash, String fileName, String url, ImageType type, long size, boolean deduplicated) {}
+
+    // El contenido no es una imagen de un formato aceptado
+    public static class UnsupportedUploadException extends IllegalArgumentException {
+        public UnsupportedUploadException(String message) {
+            super(message);
+        }
+    }
+
+    private record Digest(String hash, ImageType type, long size) {}
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path uploadDir;
+    private final Path tempDir;
+    private final String publicUrl;
+    private final Duration gcGrace;
+    // Serializa subida y GC del mismo hash (el GC no borra un fichero que se está reutilizando)
+    private final Object[] locks = new Object[64];
+
+    public UploadStorageService(StoredBlobRepository storedBlobRepository, ApplicationEventPublisher eventPublisher,
+                                @Value("${foro.uploads.dir:uploads}") String uploadDir,
+                                @Value("${foro.uploads.public-url:https://talkpoint-api.onrender.com/uploads/}") String publicUrl,
+                                @Value("${foro.uploads.gc-grace-minutes:60}") long gcGraceMinutes) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.eventPublisher = eventPublisher;
+        this.uploadDir = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempDir = this.uploadDir.resolve(".tmp");
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl : publicUrl + "/";
+        this.gcGrace = Duration.ofMinutes(gcGraceMinutes);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // Guarda (o reutiliza) el fichero y devuelve su URL pública
+    public StoredUpload store(MultipartFile file) throws IOException {
+        // Primera pasada: hash y tipo sin escribir nada
+        Digest digest;
+        try (InputStream in = file.getInputStream()) {
+            digest = digest(in, null);
+        }
+
+        String fileName = digest.hash() + "." + digest.type().extension();
+        Path target = uploadDir.resolve(fileName);
+
+        synchronized (lockFor(digest.hash())) {
+            boolean existed = Files.exists(target);
+            if (!existed) {
+                writeAtomically(file, target, digest);
+            }
+            takeReference(digest, fileName);
+            return new StoredUpload(digest.hash(), fileName, publicUrl + fileName, digest.type(), digest.size(), existed);
+        }
+    }
+
+    public Path uploadDir() {
+        return uploadDir;
+    }
+
+    // Suelta la referencia de una URL devuelta por store(); las URLs antiguas se ignoran
+    public void release(String url) {
+        if (url == null) {
+            return;
+        }
+        Matcher matcher = BLOB_NAME.matcher(url);
+        if (!url.startsWith(publicUrl) || !matcher.find()) {
+            return;
+        }
+        storedBlobRepository.releaseReference(matcher.group(1), LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${foro.uploads.gc-interval-ms:3600000}", initialDelayString = "${foro.uploads.gc-interval-ms:3600000}")
+    public void scheduledCollect() {
+        int removed = collectGarbage(LocalDateTime.now().minus(gcGrace));
+        if (removed > 0) {
+            log.info("GC de subidas: {} ficheros borrados", removed);
+        }
+    }
+
+    // Borra los blobs sin referencias desde antes de releasedBefore; devuelve cuántos
+    int collectGarbage(LocalDateTime releasedBefore) {
+        int removed = 0;
+        List<StoredBlob> candidates;
+        do {
+            candidates = storedBlobRepository.findUnreferenced(releasedBefore, Limit.of(GC_BATCH));
+            for (StoredBlob blob : candidates) {
+                synchronized (lockFor(blob.getHash())) {
+                    // Si alguien lo ha vuelto a subir entretanto, la fila ya tiene referencias
+                    if (storedBlobRepository.deleteIfUnreferenced(blob.getHash()) == 0) {
+                        continue;
+                    }
+                    try {
+                        Files.deleteIfExists(uploadDir.resolve(blob.getFileName()));
+                        for (ImageVariant variant : ImageVariant.values()) {
+                            Files.deleteIfExists(variant.pathIn(uploadDir, blob.getFileName()));
+                        }
+                        eventPublisher.publishEvent(new UploadDeletedEvent(blob.getFileName()));
+                        removed++;
+                    } catch (IOException e) {
+                        log.warn("No se pudo borrar {}", blob.getFileName(), e);
+                    }
+                }
+            }
+        } while (candidates.size() == GC_BATCH);
+        return removed;
+    }
+
+    // Segunda pasada (solo si el fichero no existe): a un temporal y rename atómico
+    private void writeAtomically(MultipartFile file, Path target, Digest expected) throws IOException {
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, expected.hash(), ".part");
+        try {
+            Digest written;
+            try (InputStream in = file.getInputStream();
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                written = digest(in, out);
+                out.force(false);
+            }
+            // Lo que queda en disco es exactamente lo que se ha validado
+            if (!written.equals(expected)) {
+                throw new IOException("El contenido de la subida ha cambiado durante la escritura");
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Otro proceso lo ha escrito a la vez: el contenido es el mismo
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // La fila se crea con la primera referencia; las siguientes solo incrementan
+    private void takeReference(Digest digest, String fileName) {
+        if (storedBlobRepository.addReference(digest.hash()) > 0) {
+            return;
+        }
+        try {
+            storedBlobRepository.saveAndFlush(
+                new StoredBlob(digest.hash(), fileName, digest.type().contentType(), digest.size()));
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia ha insertado la fila a la vez
+            storedBlobRepository.addReference(digest.hash());
+        }
+    }
+
+    // Lee el stream entero calculando SHA-256 y el tipo; si out no es null, copia a la vez
+    private static Digest digest(InputStream in, FileChannel out) throws IOException {
+        MessageDigest sha256 = sha256();
+        ReadableByteChannel channel = Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] header = new byte[HEADER_SIZE];
+        int headerLength = 0;
+        ImageType type = null;
+        long size = 0;
+
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            int read = buffer.remaining();
+            if (type == null && headerLength < HEADER_SIZE) {
+                int take = Math.min(HEADER_SIZE - headerLength, read);
+                buffer.duplicate().get(header, headerLength, take);
+                headerLength += take;
+                if (headerLength == HEADER_SIZE) {
+                    type = requireImage(header, headerLength);
+                }
+            }
+            sha256.update(buffer.duplicate());
+            if (out != null) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            size += read;
+            buffer.clear();
+        }
+        if (type == null) {
+            type = requireImage(header, headerLength);
+        }
+        return new Digest(HexFormat.of().formatHex(sha256.digest()), type, size);
+    }
+
+    private static ImageType requireImage(byte[] header, int length) {
+        ImageType type = ImageType.sniff(header, length);
+        if (type == null) {
+            throw new UnsupportedUploadException("Formato de imagen no soportado");
+        }
+        return type;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), locks.length)];
+    }
+}
@@ -0,0 +1,113 @@
+package com.foro.backend.service;
+
+import com.foro.backend.model.UserStats;
+import com.foro.backend.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+// Estadísticas por usuario en user_stats: se crean al registrarse, se mueven con deltas atómicos
+// en los caminos de crear/borrar posts y comentarios y de likes, y se pueden recalcular en bloque.
+// Leer un perfil es una búsqueda por clave primaria, sin COUNT.
+@Service
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    // Recuentos desde cero del usuario u: posts, comentarios y likes recibidos
+    private static final String COUNTS = "(select count(*) from post p where p.user_id = u.id), "
+        + "(select count(*) from comment c where c.user_id = u.id), "
+        + "(select count(*) from post_likes l join post p on p.id = l.post_id where p.user_id = u.id) ";
+
+    // Cálculo desde cero, en una sola sentencia para todos los usuarios que no tengan fila
+    private static final String INSERT_MISSING = "insert into user_stats (user_id, posts, comments, likes_received) "
+        + "select u.id, " + COUNTS
+        + "from users u where not exists (select 1 from user_stats s where s.user_id = u.id)";
+
+    private static final String COMPUTE = "select " + COUNTS + "from users u where u.id = ?";
+
+    private final UserStatsRepository userStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserStatsService(UserStatsRepository userStatsRepository, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager) {
+        this.userStatsRepository = userStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Usuarios de antes de existir la tabla: se calculan una vez al arrancar
+    @EventListener(ApplicationReadyEvent.class)
+    public void createMissing() {
+        int created = jdbcTemplate.update(INSERT_MISSING);
+        if (created > 0) {
+            log.info("Estadísticas calculadas para {} usuarios", created);
+        }
+    }
+
+    // Recalcula todas las filas (por ejemplo, tras corregir datos a mano)
+    public int rebuildAll() {
+        Integer rebuilt = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from user_stats");
+            return jdbcTemplate.update(INSERT_MISSING);
+        });
+        return rebuilt != null ? rebuilt : 0;
+    }
+
+    // Sin fila se calcula en la conexión de quien lee (a menudo una transacción readOnly) y no se
+    // guarda: abrir otra transacción para insertarla pediría una segunda conexión al pool.
+    // La fila la crean el registro, la siguiente escritura del usuario o createMissing al arrancar
+    public UserStats get(Long userId) {
+        return userStatsRepository.findById(userId).orElseGet(() -> {
+            List<UserStats> computed = jdbcTemplate.query(COMPUTE,
+                (rs, row) -> new UserStats(userId, rs.getInt(1), rs.getInt(2), rs.getInt(3)), userId);
+            return computed.isEmpty() ? new UserStats(userId, 0, 0, 0) : computed.get(0);
+        });
+    }
+
+    public void userCreated(Long userId) {
+        materialize(userId);
+    }
+
+    public void postsChanged(Long userId, int delta) {
+        if (userId != null && userStatsRepository.addToPosts(userId, delta) == 0) {
+            materialize(userId);
+        }
+    }
+
+    public void commentsChanged(Long userId, int delta) {
+        if (userId != null && userStatsRepository.addToComments(userId, delta) == 0) {
+            materialize(userId);
+        }
+    }
+
+    // Varios autores a la vez (borrar un comentario con sus respuestas)
+    public void commentsChanged(Map<Long, Integer> deltaByUser) {
+        deltaByUser.forEach(this::commentsChanged);
+    }
+
+    // Dentro de la transacción del like; si el autor aún no tiene fila se calcula al leerla
+    public void likesReceivedChanged(Long postId, int delta) {
+        userStatsRepository.addToLikesReceivedForPost(postId, delta);
+    }
+
+    // Fila de un usuario calculada desde cero; ya incluye el cambio que no se pudo aplicar.
+    // Una sola sentencia en la transacción de quien llama, si la hay, sin pedir otra conexión
+    private void materialize(Long userId) {
+        try {
+            jdbcTemplate.update(INSERT_MISSING + " and u.id = ?", userId);
+        } catch (DataIntegrityViolationException e) {
+            // Otra petición la creó a la vez
+        }
+    }
+}
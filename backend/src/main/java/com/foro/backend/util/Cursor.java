@@ -0,0 +1,73 @@
+package com.foro.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Cursores opacos para la paginación keyset.
+// Los valores de la clave de ordenación se codifican en Base64 URL-safe para que el cliente
+// no dependa de su formato; se devuelven en "nextCursor" y se reenvían tal cual.
+public final class Cursor {
+
+    private static final String SEPARATOR = "|";
+
+    private Cursor() {}
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) raw.append(SEPARATOR);
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Devuelve las partes del cursor; lanza IllegalArgumentException si está mal formado
+    public static String[] decode(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor);
+        }
+        return parts;
+    }
+
+    // Posición keyset sobre (createdAt, id)
+    public record TimeId(LocalDateTime createdAt, long id) {}
+
+    public static String ofTimeAndId(LocalDateTime createdAt, long id) {
+        return encode(createdAt, id);
+    }
+
+    public static TimeId timeIdOf(String cursor) {
+        String[] parts = decode(cursor, 2);
+        try {
+            return new TimeId(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+
+    public static String ofId(long id) {
+        return encode(id);
+    }
+
+    // Acepta tanto un cursor opaco como un id numérico en claro (?before=123)
+    public static long idOf(String cursor) {
+        if (!cursor.isEmpty() && cursor.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(cursor);
+        }
+        try {
+            return Long.parseLong(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+}
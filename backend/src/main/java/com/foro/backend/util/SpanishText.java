@@ -0,0 +1,115 @@
+package com.foro.backend.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Análisis de texto para la búsqueda de artículos: quita el HTML, pasa a minúsculas
+// en español y pliega los acentos ("Canción" -> "cancion") conservando la ñ.
+// Las palabras vacías más comunes no se indexan.
+public final class SpanishText {
+
+    private static final Locale SPANISH = Locale.forLanguageTag("es");
+
+    private static final Pattern SCRIPT_OR_STYLE = Pattern.compile("(?is)<(script|style)[^>]*>.*?</\\1\\s*>");
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern ENTITY = Pattern.compile("&(#x[0-9a-fA-F]+|#[0-9]+|[a-zA-Z]+);");
+
+    private static final Map<String, String> NAMED_ENTITIES = Map.ofEntries(
+        Map.entry("nbsp", " "), Map.entry("amp", "&"), Map.entry("lt", "<"), Map.entry("gt", ">"),
+        Map.entry("quot", "\""), Map.entry("apos", "'"),
+        Map.entry("aacute", "á"), Map.entry("eacute", "é"), Map.entry("iacute", "í"),
+        Map.entry("oacute", "ó"), Map.entry("uacute", "ú"), Map.entry("uuml", "ü"),
+        Map.entry("ntilde", "ñ"), Map.entry("Ntilde", "Ñ"),
+        Map.entry("iexcl", "¡"), Map.entry("iquest", "¿"));
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "de", "la", "que", "el", "en", "los", "del", "se", "las", "por", "un", "para", "con",
+        "no", "una", "su", "al", "lo", "como", "mas", "pero", "sus", "le", "ya", "este", "si",
+        "porque", "esta", "entre", "cuando", "muy", "sin", "sobre", "tambien", "me", "hasta",
+        "hay", "donde", "quien", "desde", "todo", "nos", "durante", "todos", "uno", "les", "ni",
+        "contra", "otros", "ese", "eso", "ante", "ellos", "esto", "mi", "antes", "algunos",
+        "unos", "yo", "otro", "otras", "otra", "es", "son", "ha", "han", "fue", "era", "ser");
+
+    private SpanishText() {}
+
+    // Texto visible de un fragmento HTML
+    public static String stripHtml(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        String text = SCRIPT_OR_STYLE.matcher(html).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll(" ");
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        Matcher matcher = ENTITY.matcher(text);
+        StringBuilder out = new StringBuilder(text.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(out, Matcher.quoteReplacement(decodeEntity(matcher.group(1), matcher.group())));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    // Términos indexables de un texto plano, en orden de aparición
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Minúsculas en español y sin diacríticos, salvo la tilde de la ñ
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(SPANISH), Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                out.append(c);
+            } else if (c == '\u0303' && out.length() > 0 && out.charAt(out.length() - 1) == 'n') {
+                out.setCharAt(out.length() - 1, 'ñ');
+            }
+        }
+        return out.toString();
+    }
+
+    private static void addTerm(List<String> terms, String term) {
+        if (term.length() < 2 || STOPWORDS.contains(term)) {
+            return;
+        }
+        terms.add(term);
+    }
+
+    private static String decodeEntity(String name, String original) {
+        try {
+            if (name.startsWith("#x")) {
+                return new String(Character.toChars(Integer.parseInt(name.substring(2), 16)));
+            }
+            if (name.startsWith("#")) {
+                return new String(Character.toChars(Integer.parseInt(name.substring(1))));
+            }
+        } catch (IllegalArgumentException e) {
+            return " ";
+        }
+        return NAMED_ENTITIES.getOrDefault(name, original);
+    }
+}
@@ -0,0 +1,64 @@
+package com.foro.backend.bench;
+
+import com.foro.backend.model.User;
+import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.SessionTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Coste de autorizar una petición de admin (como deleteArticle):
+// findById + comprobar el rol (como antes) frente a verificar el token firmado,
+// recalculando la firma o sacando los claims del LRU.
+// La base de datos es H2 en memoria, sin red: contra MySQL la diferencia es mucho mayor.
+// No entra en el build normal; se lanza con
+//   mvn test -Dtest=AuthorizationBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthorizationBenchmark {
+
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 100_000;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void tokenAuthorizationIsCheaperThanUserLookup() {
+		User admin = new User("bench_admin", "bench_admin@foro.com", "secreto");
+		admin.setRole("ADMIN");
+		Long adminId = userRepository.save(admin).getId();
+
+		SessionTokenService cached = new SessionTokenService("clave-de-benchmark", 24, false, 10_000);
+		SessionTokenService uncached = new SessionTokenService("clave-de-benchmark", 24, false, 0);
+		String token = cached.issue(admin);
+
+		double lookup = nanosPerCheck(() -> userRepository.findById(adminId)
+			.map(user -> "ADMIN".equals(user.getRole())).orElse(false));
+		double hmac = nanosPerCheck(() -> uncached.verify(token).isAdmin());
+		double lru = nanosPerCheck(() -> cached.verify(token).isAdmin());
+
+		System.out.printf("Autorizar una petición: findById %.0f ns, HMAC %.0f ns (%.1fx), claims en caché %.0f ns (%.1fx)%n",
+			lookup, hmac, lookup / hmac, lru, lookup / lru);
+		assertTrue(hmac < lookup);
+		assertTrue(lru < hmac);
+	}
+
+	private static double nanosPerCheck(BooleanSupplier check) {
+		for (int i = 0; i < WARMUP; i++) {
+			assertTrue(check.getAsBoolean());
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			if (!check.getAsBoolean()) {
+				throw new AssertionError();
+			}
+		}
+		return (System.nanoTime() - start) / (double) ITERATIONS;
+	}
+}
@@ -0,0 +1,159 @@
+package com.foro.backend.bench;
+
+import com.foro.backend.BackendApplication;
+import com.foro.backend.config.SqlStatementCountingDataSource;
+import com.foro.backend.model.Comment;
+import com.foro.backend.model.Post;
+import com.foro.backend.model.PostLike;
+import com.foro.backend.model.User;
+import com.foro.backend.repository.CommentRepository;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.SqlStatementStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Ráfagas de likes y comentarios guardados por lotes de filas (como el volcado del write-behind)
+// con tres configuraciones, cada una en su propio contexto y su propia H2:
+// ids de uno en uno sin lotes JDBC, bloques de 50 sin lotes (como estaba) y bloques de 50 con
+// inserts en lotes ordenados (como está ahora). Informa de filas/s y de sentencias ejecutadas por
+// fila, contadas por SqlStatementCountingDataSource (un executeBatch es un viaje, cuenta una).
+// H2 en memoria no tiene red: contra MySQL cada sentencia ahorrada es un viaje de ida y vuelta.
+// No entra en el build normal; se lanza con
+//   mvn test -Dtest=BulkWriteBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+class BulkWriteBenchmark {
+
+	private static final int USERS = 200;
+	private static final int POSTS = 1_000;
+	private static final int LIKES = 40_000;
+	private static final int COMMENTS = 20_000;
+	// Filas por transacción
+	private static final int CHUNK = 500;
+
+	private record Setup(String name, int blockSize, int batchSize) {}
+
+	private record Result(double likesPerSecond, double commentsPerSecond, double statementsPerRow) {}
+
+	@Test
+	void pooledIdsAndBatchedInsertsSpeedUpBulkWrites() {
+		List<Setup> setups = List.of(
+			new Setup("bloque 1, sin lotes", 1, 0),
+			new Setup("bloque 50, sin lotes", 50, 0),
+			new Setup("bloque 50, lotes de 50", 50, 50));
+
+		List<Result> results = new ArrayList<>();
+		for (Setup setup : setups) {
+			results.add(run(setup));
+		}
+
+		System.out.printf("%-24s %12s %16s %14s%n", "configuración", "likes/s", "comentarios/s", "SQL/fila");
+		for (int i = 0; i < setups.size(); i++) {
+			Result result = results.get(i);
+			System.out.printf("%-24s %12.0f %16.0f %14.3f%n", setups.get(i).name(),
+				result.likesPerSecond(), result.commentsPerSecond(), result.statementsPerRow());
+		}
+		Result before = results.get(1);
+		Result now = results.get(2);
+		System.out.printf("Lotes frente a como estaba: likes %.1fx, comentarios %.1fx, %.0fx menos sentencias%n",
+			now.likesPerSecond() / before.likesPerSecond(), now.commentsPerSecond() / before.commentsPerSecond(),
+			before.statementsPerRow() / now.statementsPerRow());
+		assertTrue(results.get(0).statementsPerRow() > before.statementsPerRow());
+		assertTrue(now.statementsPerRow() * 10 < before.statementsPerRow());
+	}
+
+	private static Result run(Setup setup) {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+				.profiles("test")
+				// Como argumentos, que pesan más que application.properties
+				.run("--spring.main.web-application-type=none",
+					"--foro.reconcile.enabled=false",
+					"--foro.ids.block-size=" + setup.blockSize(),
+					"--spring.jpa.properties.hibernate.jdbc.batch_size=" + setup.batchSize())) {
+			Workload workload = new Workload(context);
+			// Dos rondas para calentar; se mide la tercera, con otras filas
+			workload.round(0);
+			workload.round(1);
+			return workload.round(2);
+		}
+	}
+
+	private static final class Workload {
+		private final PostLikeRepository likes;
+		private final CommentRepository comments;
+		private final List<User> users;
+		private final List<Post> posts;
+
+		Workload(ConfigurableApplicationContext context) {
+			likes = context.getBean(PostLikeRepository.class);
+			comments = context.getBean(CommentRepository.class);
+
+			List<User> newUsers = new ArrayList<>();
+			for (int i = 0; i < USERS; i++) {
+				newUsers.add(new User("bulk_" + i, "bulk_" + i + "@foro.com", "secreto"));
+			}
+			users = context.getBean(UserRepository.class).saveAll(newUsers);
+			List<Post> newPosts = new ArrayList<>();
+			for (int i = 0; i < POSTS; i++) {
+				Post post = new Post("Post " + i, "Contenido " + i, 0, 0, null);
+				post.setUser(users.get(i % USERS));
+				newPosts.add(post);
+			}
+			posts = context.getBean(PostRepository.class).saveAll(newPosts);
+		}
+
+		// Cada ronda usa pares usuario/post distintos para no chocar con la restricción única de likes.
+		// Las sentencias se cuentan como las de una petición HTTP, con su contador en el hilo
+		Result round(int round) {
+			SqlStatementStats.RequestCounter counter = new SqlStatementStats.RequestCounter();
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.setAttribute(SqlStatementCountingDataSource.COUNTER_ATTRIBUTE, counter);
+			RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+			try {
+				return timedRound(round, counter);
+			} finally {
+				RequestContextHolder.resetRequestAttributes();
+			}
+		}
+
+		private Result timedRound(int round, SqlStatementStats.RequestCounter counter) {
+
+			long start = System.nanoTime();
+			List<PostLike> chunk = new ArrayList<>(CHUNK);
+			for (int i = 0; i < LIKES; i++) {
+				int pair = round * LIKES + i;
+				chunk.add(new PostLike(users.get(pair % USERS).getId(), posts.get(pair / USERS % POSTS).getId()));
+				if (chunk.size() == CHUNK) {
+					likes.saveAll(chunk);
+					chunk.clear();
+				}
+			}
+			likes.saveAll(chunk);
+			double likeSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			List<Comment> commentChunk = new ArrayList<>(CHUNK);
+			for (int i = 0; i < COMMENTS; i++) {
+				commentChunk.add(new Comment("Comentario " + i, posts.get(i % POSTS), users.get(i % USERS)));
+				if (commentChunk.size() == CHUNK) {
+					comments.saveAll(commentChunk);
+					commentChunk.clear();
+				}
+			}
+			comments.saveAll(commentChunk);
+			double commentSeconds = (System.nanoTime() - start) / 1e9;
+
+			return new Result(LIKES / likeSeconds, COMMENTS / commentSeconds,
+				counter.getStatements() / (double) (LIKES + COMMENTS));
+		}
+	}
+}
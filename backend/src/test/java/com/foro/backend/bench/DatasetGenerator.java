@@ -0,0 +1,311 @@
+package com.foro.backend.bench;
+
+import com.foro.backend.service.CategoryRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Carga un foro sintético directamente con lotes JDBC: usuarios, posts, likes, comentarios con
+// respuestas y artículos. La popularidad sigue una ley de Zipf (pocos posts se llevan casi todos
+// los likes y comentarios, pocos usuarios escriben casi todo) y Post.likes/Post.comments salen
+// ya cuadrados con las filas. Misma semilla, mismos datos.
+// Pensado para la H2 embebida de los tests: al terminar reinicia las secuencias de Hibernate
+// por encima de los ids insertados. Las cachés en memoria (categorías, índice de búsqueda,
+// user_stats) hay que reconstruirlas después.
+class DatasetGenerator {
+
+	// Tamaños por defecto: un par de minutos en un portátil. Se cambian con -Ddataset.<campo>=N
+	record Volumes(int users, int posts, long likes, long comments, int articles, double skew, long seed) {
+
+		static Volumes fromSystemProperties() {
+			return new Volumes(
+				Integer.getInteger("dataset.users", 2_000),
+				Integer.getInteger("dataset.posts", 20_000),
+				Long.getLong("dataset.likes", 200_000L),
+				Long.getLong("dataset.comments", 60_000L),
+				Integer.getInteger("dataset.articles", 500),
+				Double.parseDouble(System.getProperty("dataset.skew", "1.1")),
+				Long.getLong("dataset.seed", 42L));
+		}
+	}
+
+	record Summary(long firstUserId, long firstPostId, int users, int posts, long likes, long comments, int articles,
+				   long[] hottestPosts, long millis) {}
+
+	private static final int BATCH = 1_000;
+	// Fracción de comentarios que abren hilo; el resto son respuestas
+	private static final double MAIN_COMMENT_SHARE = 0.3;
+	private static final String[] WORDS = ("el foro tema opinión pregunta respuesta proyecto código datos "
+		+ "servidor móvil juego ciencia espacio robot inteligencia artificial red nube seguridad diseño "
+		+ "rendimiento memoria consulta índice usuario comunidad noticia análisis prueba versión").split(" ");
+
+	private final JdbcTemplate jdbc;
+	private final Volumes volumes;
+	private final SplittableRandom random;
+	private final LocalDateTime now = LocalDateTime.now();
+
+	DatasetGenerator(JdbcTemplate jdbc, Volumes volumes) {
+		this.jdbc = jdbc;
+		this.volumes = volumes;
+		this.random = new SplittableRandom(volumes.seed());
+	}
+
+	Summary load() {
+		long started = System.currentTimeMillis();
+		long firstUserId = nextId("users");
+		long firstPostId = nextId("post");
+		int users = volumes.users();
+		int posts = volumes.posts();
+
+		// Peso de cada post (por rango aleatorio, no por id) y de cada usuario como autor
+		double[] postWeight = zipfWeights(posts);
+		int[] likesPerPost = apportion(postWeight, volumes.likes(), users);
+		int[] commentsPerPost = apportion(postWeight, volumes.comments(), Integer.MAX_VALUE);
+		ZipfSampler authors = new ZipfSampler(zipfWeights(users));
+
+		insertUsers(firstUserId, users);
+		insertPosts(firstPostId, firstUserId, likesPerPost, commentsPerPost, authors);
+		long likes = insertLikes(firstPostId, firstUserId, users, likesPerPost);
+		long comments = insertComments(firstPostId, firstUserId, commentsPerPost, authors);
+		insertArticles(firstUserId, authors);
+		restartSequences();
+
+		return new Summary(firstUserId, firstPostId, users, posts, likes, comments, volumes.articles(),
+			hottest(firstPostId, postWeight, 100), System.currentTimeMillis() - started);
+	}
+
+	private void insertUsers(long firstId, int count) {
+		String sql = "insert into users (id, username, email, password, display_name, avatar, bio, role, followers, following) "
+			+ "values (?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		for (int i = 0; i < count; i++) {
+			long id = firstId + i;
+			rows.add(new Object[] {
+				id, "gen_user" + id, "gen_user" + id + "@foro.test", "secreto",
+				random.nextInt(10) < 6 ? "Usuario " + id : null,
+				random.nextInt(10) < 4 ? "https://talkpoint-api.onrender.com/uploads/avatar_" + id + ".png" : null,
+				random.nextInt(10) < 3 ? sentence(12) : null,
+				"USER"});
+			flushIfFull(sql, rows);
+		}
+		flush(sql, rows);
+	}
+
+	private void insertPosts(long firstId, long firstUserId, int[] likes, int[] comments, ZipfSampler authors) {
+		String sql = "insert into post (id, title, content, likes, comments, img, user_id) values (?, ?, ?, ?, ?, ?, ?)";
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		for (int i = 0; i < likes.length; i++) {
+			rows.add(new Object[] {
+				firstId + i, capitalize(sentence(3 + random.nextInt(6))), paragraph(), likes[i], comments[i],
+				random.nextInt(10) < 3 ? "https://talkpoint-api.onrender.com/uploads/post_" + (firstId + i) + ".jpg" : null,
+				firstUserId + authors.next(random)});
+			flushIfFull(sql, rows);
+		}
+		flush(sql, rows);
+	}
+
+	// Cada post recibe sus likes de usuarios distintos: un recorrido (inicio + k·paso) mod usuarios
+	// con un paso primo con el número de usuarios no repite hasta dar la vuelta completa
+	private long insertLikes(long firstPostId, long firstUserId, int users, int[] likesPerPost) {
+		String sql = "insert into post_likes (id, post_id, user_id, created_at) values (?, ?, ?, ?)";
+		long id = nextId("post_likes");
+		long first = id;
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		for (int i = 0; i < likesPerPost.length; i++) {
+			long start = random.nextInt(users);
+			long step = coprimeStep(users);
+			for (int k = 0; k < likesPerPost[i]; k++) {
+				long userId = firstUserId + (start + k * step) % users;
+				rows.add(new Object[] {id++, firstPostId + i, userId, Timestamp.valueOf(now.minusMinutes(random.nextInt(525_600)))});
+				flushIfFull(sql, rows);
+			}
+		}
+		flush(sql, rows);
+		return id - first;
+	}
+
+	// Hilos largos: un 30% de comentarios principales y el resto respuestas, concentradas en los
+	// primeros hilos de cada post (la API solo anida un nivel)
+	private long insertComments(long firstPostId, long firstUserId, int[] commentsPerPost, ZipfSampler authors) {
+		String sql = "insert into comment (id, content, created_at, post_id, user_id, parent_id) values (?, ?, ?, ?, ?, ?)";
+		long id = nextId("comment");
+		long first = id;
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		for (int i = 0; i < commentsPerPost.length; i++) {
+			int total = commentsPerPost[i];
+			if (total == 0) {
+				continue;
+			}
+			int mains = Math.max(1, (int) Math.ceil(total * MAIN_COMMENT_SHARE));
+			long firstMain = id;
+			LocalDateTime postedAt = now.minusMinutes(random.nextInt(525_600));
+			for (int m = 0; m < mains; m++) {
+				rows.add(new Object[] {id++, sentence(4 + random.nextInt(30)), Timestamp.valueOf(postedAt.plusMinutes(m * 7L)),
+					firstPostId + i, firstUserId + authors.next(random), null});
+				flushIfFull(sql, rows);
+			}
+			for (int r = mains; r < total; r++) {
+				double u = random.nextDouble();
+				int thread = (int) (mains * u * u * u);
+				rows.add(new Object[] {id++, sentence(3 + random.nextInt(20)), Timestamp.valueOf(postedAt.plusMinutes(thread * 7L + r)),
+					firstPostId + i, firstUserId + authors.next(random), firstMain + thread});
+				flushIfFull(sql, rows);
+			}
+		}
+		flush(sql, rows);
+		return id - first;
+	}
+
+	private void insertArticles(long firstUserId, ZipfSampler authors) {
+		String sql = "insert into article (id, title, summary, content, cover_image, category, created_at, published, author_id) "
+			+ "values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+		ZipfSampler categories = new ZipfSampler(zipfWeights(CategoryRegistry.DEFAULT_CATEGORIES.size()));
+		long id = nextId("article");
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		for (int i = 0; i < volumes.articles(); i++) {
+			rows.add(new Object[] {id, capitalize(sentence(4 + random.nextInt(6))), sentence(25), paragraph() + " " + paragraph(),
+				random.nextInt(10) < 7 ? "https://talkpoint-api.onrender.com/uploads/cover_" + id + ".jpg" : null,
+				CategoryRegistry.DEFAULT_CATEGORIES.get(categories.next(random)),
+				Timestamp.valueOf(now.minusHours(volumes.articles() - i)), random.nextInt(20) != 0,
+				firstUserId + authors.next(random)});
+			id++;
+			flushIfFull(sql, rows);
+		}
+		flush(sql, rows);
+	}
+
+	// Las secuencias de Hibernate (pooled-lo) pasan a estar por encima de los ids insertados
+	private void restartSequences() {
+		for (Map<String, Object> sequence : jdbc.queryForList(
+				"select sequence_name, increment from information_schema.sequences where sequence_schema = 'PUBLIC'")) {
+			String name = (String) sequence.get("SEQUENCE_NAME");
+			String table = name.substring(0, name.length() - "_SEQ".length());
+			long next = nextId(table) + ((Number) sequence.get("INCREMENT")).longValue();
+			jdbc.execute("alter sequence " + name + " restart with " + next);
+		}
+	}
+
+	private long nextId(String table) {
+		Long max = jdbc.queryForObject("select max(id) from " + table, Long.class);
+		return (max != null ? max : 0) + 1;
+	}
+
+	private void flushIfFull(String sql, List<Object[]> rows) {
+		if (rows.size() >= BATCH) {
+			flush(sql, rows);
+		}
+	}
+
+	private void flush(String sql, List<Object[]> rows) {
+		if (!rows.isEmpty()) {
+			jdbc.batchUpdate(sql, rows);
+			rows.clear();
+		}
+	}
+
+	// Pesos 1/rango^skew repartidos en orden aleatorio
+	private double[] zipfWeights(int n) {
+		int[] ranks = new int[n];
+		for (int i = 0; i < n; i++) {
+			ranks[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = ranks[i];
+			ranks[i] = ranks[j];
+			ranks[j] = swap;
+		}
+		double[] weights = new double[n];
+		for (int i = 0; i < n; i++) {
+			weights[i] = 1.0 / Math.pow(ranks[i] + 1, volumes.skew());
+		}
+		return weights;
+	}
+
+	// Reparte total en proporción a los pesos, con redondeo aleatorio y un máximo por elemento
+	private int[] apportion(double[] weights, long total, int max) {
+		double sum = 0;
+		for (double weight : weights) {
+			sum += weight;
+		}
+		int[] counts = new int[weights.length];
+		for (int i = 0; i < weights.length; i++) {
+			double exact = total * weights[i] / sum;
+			long count = (long) exact + (random.nextDouble() < exact - Math.floor(exact) ? 1 : 0);
+			counts[i] = (int) Math.min(count, max);
+		}
+		return counts;
+	}
+
+	private long[] hottest(long firstPostId, double[] weights, int n) {
+		Integer[] order = new Integer[weights.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Double.compare(weights[b], weights[a]));
+		long[] ids = new long[Math.min(n, order.length)];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = firstPostId + order[i];
+		}
+		return ids;
+	}
+
+	private long coprimeStep(int users) {
+		long step;
+		do {
+			step = 1 + random.nextInt(Math.max(1, users - 1));
+		} while (gcd(step, users) != 1);
+		return step;
+	}
+
+	private static long gcd(long a, long b) {
+		return b == 0 ? a : gcd(b, a % b);
+	}
+
+	private String sentence(int words) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				text.append(' ');
+			}
+			text.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return text.toString();
+	}
+
+	// Entre ~100 y ~250 caracteres (la columna de post es varchar(255))
+	private String paragraph() {
+		String text = capitalize(sentence(12 + random.nextInt(20))) + ".";
+		return text.length() > 250 ? text.substring(0, 250) : text;
+	}
+
+	private static String capitalize(String text) {
+		return text.isEmpty() ? text : Character.toUpperCase(text.charAt(0)) + text.substring(1);
+	}
+
+	// Muestreo por búsqueda binaria sobre la distribución acumulada
+	private static final class ZipfSampler {
+		private final double[] cumulative;
+
+		ZipfSampler(double[] weights) {
+			cumulative = new double[weights.length];
+			double sum = 0;
+			for (int i = 0; i < weights.length; i++) {
+				sum += weights[i];
+				cumulative[i] = sum;
+			}
+		}
+
+		int next(SplittableRandom random) {
+			double target = random.nextDouble() * cumulative[cumulative.length - 1];
+			int index = Arrays.binarySearch(cumulative, target);
+			return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.foro.backend.bench;
+
+import com.foro.backend.service.ArticleSearchIndex;
+import com.foro.backend.service.CategoryRegistry;
+import com.foro.backend.service.UserStatsService;
+import com.foro.backend.util.Cursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Prueba de carga local: genera un foro sintético (DatasetGenerator) en la H2 embebida, arranca
+// el servidor real en un puerto aleatorio y lanza peticiones HTTP concurrentes con una mezcla de
+// lecturas y likes. Por endpoint informa de p50/p99 y de sentencias SQL por petición (las que
+// pasan por Hibernate, medidas en una pasada secuencial aparte). Todo offline, en una máquina.
+// No entra en el build normal; se lanza con
+//   mvn test -Dtest=EndpointLoadBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// y se escala con -Ddataset.users=100000 -Ddataset.posts=1000000 -Ddataset.likes=10000000
+// -Ddataset.comments=3000000 -Dload.threads=32 -Dload.requests=200000 -DargLine=-Xmx8g
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+	"spring.jpa.properties.hibernate.generate_statistics=true",
+	"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+	"foro.reconcile.enabled=false"
+})
+@ActiveProfiles("test")
+class EndpointLoadBenchmark {
+
+	private static final int THREADS = Integer.getInteger("load.threads", 16);
+	private static final int REQUESTS = Integer.getInteger("load.requests", 20_000);
+	private static final int WARMUP = Integer.getInteger("load.warmup", 2_000);
+	private static final int QUERY_SAMPLES = 50;
+	private static final String[] SEARCH_TERMS = {"código", "robot espacio", "rendimiento", "nube seguridad", "datos"};
+
+	private record Scenario(String name, int weight, String method, Function<SplittableRandom, String> path) {}
+
+	private record Sample(int scenario, long nanos, int status) {}
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private UserStatsService userStats;
+
+	@Autowired
+	private CategoryRegistry categoryRegistry;
+
+	@Autowired
+	private ArticleSearchIndex searchIndex;
+
+	private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@Test
+	void endpointsUnderConcurrentLoad() throws Exception {
+		DatasetGenerator.Summary data = new DatasetGenerator(jdbcTemplate, DatasetGenerator.Volumes.fromSystemProperties()).load();
+		userStats.rebuildAll();
+		categoryRegistry.rebuild();
+		searchIndex.rebuild();
+		System.out.printf("Datos: %d usuarios, %d posts, %d likes, %d comentarios, %d artículos en %d ms%n",
+			data.users(), data.posts(), data.likes(), data.comments(), data.articles(), data.millis());
+
+		List<Scenario> scenarios = scenarios(data);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		double[] queries = queriesPerRequest(scenarios, statistics);
+
+		run(scenarios, WARMUP);
+		long started = System.nanoTime();
+		List<Sample> samples = run(scenarios, REQUESTS);
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		int failures = report(scenarios, samples, queries);
+		System.out.printf("%d peticiones con %d hilos en %.1f s (%.0f peticiones/s)%n",
+			samples.size(), THREADS, seconds, samples.size() / seconds);
+		assertEquals(0, failures);
+	}
+
+	private List<Scenario> scenarios(DatasetGenerator.Summary data) {
+		long[] hot = data.hottestPosts();
+		Function<SplittableRandom, Long> anyUser = random -> data.firstUserId() + random.nextInt(data.users());
+		Function<SplittableRandom, Long> anyPost = random -> data.firstPostId() + random.nextInt(data.posts());
+		// Mitad posts populares, mitad cualquiera
+		Function<SplittableRandom, Long> skewedPost = random -> random.nextBoolean() ? hot[random.nextInt(hot.length)] : anyPost.apply(random);
+		return List.of(
+			new Scenario("feed", 25, "GET", random -> "/api/posts?limit=20&userId=" + anyUser.apply(random)),
+			new Scenario("feed página", 10, "GET", random -> "/api/posts?limit=20&before="
+				+ Cursor.ofId(anyPost.apply(random)) + "&userId=" + anyUser.apply(random)),
+			new Scenario("posts de usuario", 8, "GET", random -> "/api/posts/user/" + anyUser.apply(random) + "?limit=20"),
+			new Scenario("comentarios", 20, "GET", random -> "/api/posts/" + skewedPost.apply(random) + "/comments?limit=20&replyLimit=3"),
+			new Scenario("perfil", 8, "GET", random -> "/api/auth/user/" + anyUser.apply(random)),
+			new Scenario("likes de usuario", 5, "GET", random -> "/api/users/" + anyUser.apply(random) + "/liked-posts?limit=20"),
+			new Scenario("artículos", 8, "GET", random -> "/api/articles?limit=20"),
+			new Scenario("búsqueda", 4, "GET", random -> "/api/articles/search?limit=10&q="
+				+ URLEncoder.encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)], StandardCharsets.UTF_8)),
+			new Scenario("like", 12, "POST", random -> "/api/posts/" + skewedPost.apply(random) + "/like?userId=" + anyUser.apply(random)));
+	}
+
+	// Sentencias preparadas por Hibernate por petición, de una en una para poder atribuirlas
+	private double[] queriesPerRequest(List<Scenario> scenarios, Statistics statistics) throws Exception {
+		SplittableRandom random = new SplittableRandom(7);
+		double[] queries = new double[scenarios.size()];
+		for (int i = 0; i < scenarios.size(); i++) {
+			long before = statistics.getPrepareStatementCount();
+			for (int n = 0; n < QUERY_SAMPLES; n++) {
+				send(scenarios.get(i), random);
+			}
+			queries[i] = (statistics.getPrepareStatementCount() - before) / (double) QUERY_SAMPLES;
+		}
+		return queries;
+	}
+
+	private List<Sample> run(List<Scenario> scenarios, int requests) throws Exception {
+		int[] cumulative = new int[scenarios.size()];
+		int total = 0;
+		for (int i = 0; i < scenarios.size(); i++) {
+			total += scenarios.get(i).weight();
+			cumulative[i] = total;
+		}
+		int totalWeight = total;
+
+		AtomicInteger remaining = new AtomicInteger(requests);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<List<Sample>>> workers = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				SplittableRandom random = new SplittableRandom(1_000 + t);
+				workers.add(pool.submit(() -> {
+					List<Sample> samples = new ArrayList<>();
+					while (remaining.getAndDecrement() > 0) {
+						int pick = Arrays.binarySearch(cumulative, random.nextInt(totalWeight) + 1);
+						int scenario = pick >= 0 ? pick : -pick - 1;
+						long start = System.nanoTime();
+						int status = send(scenarios.get(scenario), random);
+						samples.add(new Sample(scenario, System.nanoTime() - start, status));
+					}
+					return samples;
+				}));
+			}
+			List<Sample> all = new ArrayList<>(requests);
+			for (Future<List<Sample>> worker : workers) {
+				all.addAll(worker.get());
+			}
+			return all;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private int send(Scenario scenario, SplittableRandom random) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + scenario.path().apply(random)));
+		request = "POST".equals(scenario.method())
+			? request.POST(HttpRequest.BodyPublishers.noBody())
+			: request.GET();
+		return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	// Tabla por endpoint; devuelve cuántas respuestas no fueron 2xx (un 503 de saturación cuenta aparte)
+	private static int report(List<Scenario> scenarios, List<Sample> samples, double[] queries) {
+		System.out.printf("%-18s %8s %9s %9s %9s %8s %6s%n", "endpoint", "peticiones", "p50 ms", "p99 ms", "max ms", "SQL/pet", "503");
+		int failures = 0;
+		for (int i = 0; i < scenarios.size(); i++) {
+			int scenario = i;
+			long[] nanos = samples.stream().filter(s -> s.scenario() == scenario).mapToLong(Sample::nanos).sorted().toArray();
+			long saturated = samples.stream().filter(s -> s.scenario() == scenario && s.status() == 503).count();
+			long failed = samples.stream()
+				.filter(s -> s.scenario() == scenario && (s.status() < 200 || s.status() >= 300) && s.status() != 503)
+				.count();
+			failures += (int) failed;
+			if (nanos.length == 0) {
+				continue;
+			}
+			System.out.printf("%-18s %8d %9.2f %9.2f %9.2f %8.1f %6d%s%n", scenarios.get(i).name(), nanos.length,
+				percentile(nanos, 0.50), percentile(nanos, 0.99), nanos[nanos.length - 1] / 1e6, queries[i], saturated,
+				failed > 0 ? "  (" + failed + " errores)" : "");
+		}
+		return failures;
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		int index = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+	}
+}
@@ -0,0 +1,107 @@
+package com.foro.backend.bench;
+
+import com.foro.backend.dto.PostDto;
+import com.foro.backend.model.Post;
+import com.foro.backend.model.User;
+import com.foro.backend.service.JsonFragments;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bytes asignados por respuesta al renderizar un feed de 50 posts:
+// mapas HashMap por petición (como antes) frente a records con el autor ya serializado.
+// No entra en el build normal; se lanza con
+//   mvn test -Dtest=ResponseAllocationBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+class ResponseAllocationBenchmark {
+
+	private static final int FEED_SIZE = 50;
+	private static final int WARMUP = 3_000;
+	private static final int ITERATIONS = 3_000;
+
+	private final ObjectMapper mapper = JsonMapper.builder().build();
+	private final JsonFragments fragments = new JsonFragments(mapper);
+
+	@Test
+	void dtoRenderingAllocatesLessThanPerRequestMaps() {
+		List<Post> feed = syntheticFeed();
+
+		long maps = bytesPerResponse(() -> mapper.writeValueAsBytes(renderWithMaps(feed)));
+		long dtos = bytesPerResponse(() -> mapper.writeValueAsBytes(renderWithDtos(feed)));
+
+		System.out.printf("Feed de %d posts: HashMap %d B/respuesta, DTO + fragmentos %d B/respuesta (%.1f%% menos)%n",
+			FEED_SIZE, maps, dtos, 100.0 * (maps - dtos) / maps);
+		assertTrue(dtos < maps);
+	}
+
+	// Igual que el antiguo PostController.buildPostResponse
+	private List<Map<String, Object>> renderWithMaps(List<Post> feed) {
+		List<Map<String, Object>> response = new ArrayList<>(feed.size());
+		for (Post post : feed) {
+			Map<String, Object> map = new HashMap<>();
+			map.put("id", post.getId());
+			map.put("title", post.getTitle());
+			map.put("content", post.getContent());
+			map.put("likes", post.getLikes());
+			map.put("comments", post.getComments());
+			map.put("img", post.getImg());
+			map.put("likedByUser", false);
+			Map<String, Object> author = new HashMap<>();
+			author.put("id", post.getUser().getId());
+			author.put("username", post.getUser().getUsername());
+			author.put("displayName", post.getUser().getDisplayName());
+			author.put("avatar", post.getUser().getAvatar());
+			map.put("author", author);
+			response.add(map);
+		}
+		return response;
+	}
+
+	private List<PostDto> renderWithDtos(List<Post> feed) {
+		List<PostDto> response = new ArrayList<>(feed.size());
+		for (Post post : feed) {
+			response.add(new PostDto(post.getId(), post.getTitle(), post.getContent(), post.getLikes(),
+				post.getComments(), post.getImg(), false, fragments.author(post.getUser())));
+		}
+		return response;
+	}
+
+	private static long bytesPerResponse(Runnable render) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int i = 0; i < WARMUP; i++) {
+			render.run();
+		}
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			render.run();
+		}
+		return (threads.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+	}
+
+	private static List<Post> syntheticFeed() {
+		List<User> authors = new ArrayList<>();
+		for (long id = 1; id <= 10; id++) {
+			User user = new User("usuario" + id, "usuario" + id + "@foro.com", "secreto");
+			user.setAvatar("https://talkpoint-api.onrender.com/uploads/avatar_" + id + ".png");
+			ReflectionTestUtils.setField(user, "id", id);
+			authors.add(user);
+		}
+		List<Post> feed = new ArrayList<>();
+		for (long id = 1; id <= FEED_SIZE; id++) {
+			Post post = new Post("Título del post " + id, "Contenido de ejemplo del post número " + id,
+				(int) id * 3, (int) id, "https://talkpoint-api.onrender.com/uploads/post_" + id + ".jpg");
+			post.setUser(authors.get((int) (id % authors.size())));
+			ReflectionTestUtils.setField(post, "id", id);
+			feed.add(post);
+		}
+		return feed;
+	}
+}
@@ -0,0 +1,406 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.model.Article;
+import com.foro.backend.model.Comment;
+import com.foro.backend.model.Post;
+import com.foro.backend.model.PostLike;
+import com.foro.backend.model.User;
+import com.foro.backend.repository.ArticleRepository;
+import com.foro.backend.repository.CommentRepository;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.ArticleSearchIndex;
+import com.foro.backend.service.CategoryRegistry;
+import com.foro.backend.service.DbAdmission;
+import com.foro.backend.service.SessionTokenService;
+import com.foro.backend.service.UserStatsService;
+import com.foro.backend.support.QueryBudget;
+import com.foro.backend.support.QueryBudgetConfiguration;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Presupuesto de sentencias SQL y filas leídas de cada endpoint de los controladores del foro,
+// con suficientes datos para que un N+1 (una consulta por post, comentario o artículo) se salga
+// del presupuesto. Si un cambio sube una cuenta a propósito, se ajusta aquí el número.
+// La caché del feed se apaga para medir siempre la consulta.
+@SpringBootTest(properties = {
+	"foro.sql.stats.header=true",
+	"foro.feed-cache.enabled=false",
+	"foro.reconcile.enabled=false"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@Import(QueryBudgetConfiguration.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryBudgetTest {
+
+	private static final int POSTS = 30;
+	private static final int LIKED_POSTS = 25;
+	private static final int THREADS = 15;
+	private static final int REPLIES_PER_THREAD = 4;
+	private static final int ARTICLES = 25;
+	private static final String CATEGORY = "Ciencia";
+
+	// Con una instancia por clase el contexto arranca antes de que JUnit rellene un @TempDir estático
+	@DynamicPropertySource
+	static void uploadProperties(DynamicPropertyRegistry registry) throws IOException {
+		Path uploadDir = Files.createTempDirectory("query-budget-uploads");
+		registry.add("foro.uploads.dir", uploadDir::toString);
+		registry.add("foro.uploads.public-url", () -> "http://test/uploads/");
+	}
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private PostLikeRepository postLikeRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	@Autowired
+	private UserStatsService userStats;
+
+	@Autowired
+	private CategoryRegistry categoryRegistry;
+
+	@Autowired
+	private ArticleSearchIndex searchIndex;
+
+	@Autowired
+	private DbAdmission dbAdmission;
+
+	@Autowired
+	private SessionTokenService sessionTokens;
+
+	private User author;
+	private User reader;
+	private User admin;
+	private Post discussed;
+	private Comment thread;
+	private Article article;
+
+	@BeforeAll
+	void seed() {
+		author = userRepository.save(new User("budget_author", "budget_author@test.com", "secret"));
+		reader = userRepository.save(new User("budget_reader", "budget_reader@test.com", "secret"));
+		admin = new User("budget_admin", "budget_admin@test.com", "secret");
+		admin.setRole("ADMIN");
+		admin = userRepository.save(admin);
+
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < POSTS; i++) {
+			Post post = new Post("Post " + i, "Contenido del post " + i, 0, 0, null);
+			post.setUser(author);
+			posts.add(post);
+		}
+		posts = postRepository.saveAll(posts);
+		discussed = posts.get(0);
+
+		List<PostLike> likes = new ArrayList<>();
+		for (int i = 0; i < LIKED_POSTS; i++) {
+			likes.add(new PostLike(reader.getId(), posts.get(i).getId()));
+		}
+		postLikeRepository.saveAll(likes);
+
+		for (int i = 0; i < THREADS; i++) {
+			Comment main = commentRepository.save(new Comment("Hilo " + i, discussed, reader));
+			thread = thread == null ? main : thread;
+			List<Comment> replies = new ArrayList<>();
+			for (int r = 0; r < REPLIES_PER_THREAD; r++) {
+				replies.add(new Comment("Respuesta " + r, discussed, i % 2 == 0 ? author : reader, main));
+			}
+			commentRepository.saveAll(replies);
+		}
+
+		List<Article> articles = new ArrayList<>();
+		for (int i = 0; i < ARTICLES; i++) {
+			articles.add(new Article("Artículo de ciencia " + i, "Resumen " + i, "Texto sobre datos y ciencia " + i, null, CATEGORY, admin));
+		}
+		article = articleRepository.saveAll(articles).get(0);
+
+		userStats.rebuildAll();
+		categoryRegistry.rebuild();
+		searchIndex.rebuild();
+	}
+
+	// PostController
+
+	@Test
+	@QueryBudget(statements = 3, rows = 65)
+	void listPosts() throws Exception {
+		expectOk(get("/api/posts").param("userId", reader.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 40)
+	void listPostsPage() throws Exception {
+		expectOk(get("/api/posts").param("limit", "20").param("userId", reader.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 40)
+	void postsByUser() throws Exception {
+		expectOk(get("/api/posts/user/" + author.getId()).param("limit", "20").param("userId", reader.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 6, rows = 2)
+	void toggleLike() throws Exception {
+		expectOk(post("/api/posts/" + discussed.getId() + "/like").param("userId", author.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 7, rows = 1)
+	void createPost() throws Exception {
+		expectOk(multipart("/api/posts")
+			.file(new MockMultipartFile("image", "a.png", "image/png", png()))
+			.param("title", "Nuevo post")
+			.param("content", "Con imagen")
+			.param("userId", author.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 0, rows = 0)
+	void feedCacheStats() throws Exception {
+		expectOk(get("/api/posts/feed-cache/stats"));
+	}
+
+	// CommentController
+
+	@Test
+	@QueryBudget(statements = 2, rows = 80)
+	void allComments() throws Exception {
+		expectOk(get("/api/posts/" + discussed.getId() + "/comments"));
+	}
+
+	@Test
+	@QueryBudget(statements = 3, rows = 35)
+	void commentsPage() throws Exception {
+		expectOk(get("/api/posts/" + discussed.getId() + "/comments").param("limit", "10").param("replyLimit", "2"));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 8)
+	void replies() throws Exception {
+		expectOk(get("/api/posts/" + discussed.getId() + "/comments/" + thread.getId() + "/replies").param("limit", "10"));
+	}
+
+	@Test
+	@QueryBudget(statements = 6, rows = 2)
+	void createReply() throws Exception {
+		expectOk(post("/api/posts/" + discussed.getId() + "/comments")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"userId\":" + author.getId() + ",\"content\":\"Otra respuesta\",\"parentId\":" + thread.getId() + "}"));
+	}
+
+	@Test
+	@QueryBudget(statements = 7, rows = 5)
+	void deleteComment() throws Exception {
+		Post post = postRepository.save(new Post("Para borrar comentario", "x", 0, 1, null));
+		Comment comment = commentRepository.save(new Comment("Se borra", post, author));
+		for (int r = 0; r < REPLIES_PER_THREAD; r++) {
+			commentRepository.save(new Comment("Respuesta " + r, post, reader, comment));
+		}
+		expectOk(delete("/api/posts/" + post.getId() + "/comments/" + comment.getId()).param("userId", author.getId().toString()));
+	}
+
+	// ArticleController
+
+	@Test
+	@QueryBudget(statements = 1, rows = 11)
+	void articlesPage() throws Exception {
+		expectOk(get("/api/articles").param("limit", "10"));
+	}
+
+	@Test
+	@QueryBudget(statements = 1, rows = 27)
+	void allArticles() throws Exception {
+		expectOk(get("/api/articles"));
+	}
+
+	@Test
+	@QueryBudget(statements = 1, rows = 11)
+	void articlesByCategory() throws Exception {
+		expectOk(get("/api/articles/category/" + CATEGORY).param("limit", "10"));
+	}
+
+	@Test
+	@QueryBudget(statements = 0, rows = 0)
+	void searchArticles() throws Exception {
+		Map<String, Object> before = dbAdmission.stats();
+		expectOk(get("/api/articles/search").param("q", "ciencia datos").param("limit", "10"));
+		// Ni conexión ni permiso de admisión
+		assertEquals(before.get("read"), dbAdmission.stats().get("read"));
+		assertEquals(before.get("write"), dbAdmission.stats().get("write"));
+	}
+
+	@Test
+	@QueryBudget(statements = 1, rows = 1)
+	void getArticle() throws Exception {
+		expectOk(get("/api/articles/" + article.getId()));
+	}
+
+	@Test
+	@QueryBudget(statements = 3, rows = 1)
+	void createArticle() throws Exception {
+		expectOk(multipart("/api/articles")
+			.param("title", "Nuevo artículo")
+			.param("summary", "Resumen")
+			.param("content", "Contenido")
+			.param("category", CATEGORY)
+			.param("userId", admin.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 1)
+	void createArticleWithToken() throws Exception {
+		expectOk(multipart("/api/articles")
+			.param("title", "Nuevo artículo con token")
+			.param("summary", "Resumen")
+			.param("content", "Contenido")
+			.param("category", CATEGORY)
+			.header(HttpHeaders.AUTHORIZATION, "Bearer " + sessionTokens.issue(admin)));
+	}
+
+	@Test
+	@QueryBudget(statements = 3, rows = 2)
+	void deleteArticle() throws Exception {
+		Article doomed = articleRepository.save(new Article("Se borra", "r", "c", null, "Historia", admin));
+		expectOk(delete("/api/articles/" + doomed.getId()).param("userId", admin.getId().toString()));
+	}
+
+	@Test
+	@QueryBudget(statements = 0, rows = 0)
+	void categories() throws Exception {
+		expectOk(get("/api/articles/categories"));
+	}
+
+	@Test
+	@QueryBudget(statements = 0, rows = 0)
+	void categoryStats() throws Exception {
+		expectOk(get("/api/articles/categories/stats"));
+	}
+
+	// AuthController
+
+	@Test
+	@QueryBudget(statements = 6, rows = 1)
+	void register() throws Exception {
+		expectOk(post("/api/auth/register")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"username\":\"budget_new\",\"email\":\"budget_new@test.com\",\"password\":\"secret\"}"));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 2)
+	void login() throws Exception {
+		expectOk(post("/api/auth/login")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"username\":\"budget_reader\",\"password\":\"secret\"}"));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 2)
+	void getUser() throws Exception {
+		expectOk(get("/api/auth/user/" + author.getId()));
+	}
+
+	@Test
+	@QueryBudget(statements = 3, rows = 2)
+	void updateUser() throws Exception {
+		expectOk(put("/api/auth/user/" + reader.getId())
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"displayName\":\"Lectora\",\"bio\":\"Lee mucho\"}"));
+	}
+
+	@Test
+	@QueryBudget(statements = 6, rows = 2)
+	void uploadAvatar() throws Exception {
+		expectOk(multipart("/api/auth/user/" + author.getId() + "/avatar")
+			.file(new MockMultipartFile("avatar", "a.png", "image/png", png())));
+	}
+
+	@Test
+	@QueryBudget(statements = 2, rows = 1)
+	void makeAdmin() throws Exception {
+		userRepository.save(new User("budget_promoted", "budget_promoted@test.com", "secret"));
+		expectOk(get("/api/auth/make-admin/budget_promoted"));
+	}
+
+	// UserDataController
+
+	@Test
+	@QueryBudget(statements = 1, rows = 11)
+	void likedPostsPage() throws Exception {
+		expectOk(get("/api/users/" + reader.getId() + "/liked-posts").param("limit", "10"));
+	}
+
+	@Test
+	@QueryBudget(statements = 1, rows = 25)
+	void allLikedPosts() throws Exception {
+		expectOk(get("/api/users/" + reader.getId() + "/liked-posts"));
+	}
+
+	@Test
+	@QueryBudget(statements = 1, rows = 11)
+	void userCommentsPage() throws Exception {
+		expectOk(get("/api/users/" + reader.getId() + "/comments").param("limit", "10"));
+	}
+
+	@Test
+	@QueryBudget(statements = 1, rows = 45)
+	void allUserComments() throws Exception {
+		expectOk(get("/api/users/" + reader.getId() + "/comments"));
+	}
+
+	private void expectOk(RequestBuilder request) throws Exception {
+		assertEquals(200, mvc.perform(request).andReturn().getResponse().getStatus());
+	}
+
+	private static byte[] png() {
+		byte[] data = new byte[4096];
+		Arrays.fill(data, (byte) System.nanoTime());
+		byte[] header = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+		System.arraycopy(header, 0, data, 0, header.length);
+		return data;
+	}
+}
@@ -0,0 +1,104 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.model.User;
+import com.foro.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Dos H2 en memoria: la del perfil de tests como primario y otra como réplica
+@SpringBootTest(properties = {
+	"foro.datasource.replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+	"foro.datasource.replica.read-your-writes-ms=60000"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:foro_replica_routing;DB_CLOSE_DELAY=-1;MODE=MySQL";
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void readOnlyGetsUseTheReplicaUntilTheClientWrites() throws Exception {
+		User user = userRepository.save(new User("replica_user", "replica@test.com", "secret"));
+		copyPrimaryToReplica();
+		try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+			 Statement statement = replica.createStatement()) {
+			statement.executeUpdate("UPDATE users SET display_name = 'Desde la réplica' WHERE id = " + user.getId());
+		}
+
+		String fromReplica = profile(user, "10.0.0.1");
+		assertTrue(fromReplica.contains("Desde la réplica"), fromReplica);
+
+		// La escritura va al primario y, desde entonces, las lecturas de ese cliente también
+		assertEquals(200, mvc.perform(put("/api/auth/user/" + user.getId())
+			.with(from("10.0.0.1"))
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"bio\":\"nueva\"}")).andReturn().getResponse().getStatus());
+
+		String fromPrimary = profile(user, "10.0.0.1");
+		assertTrue(fromPrimary.contains("\"bio\":\"nueva\""), fromPrimary);
+		assertFalse(fromPrimary.contains("Desde la réplica"), fromPrimary);
+
+		// Los demás siguen leyendo de la réplica
+		assertTrue(profile(user, "10.0.0.2").contains("Desde la réplica"));
+	}
+
+	private String profile(User user, String address) throws Exception {
+		return mvc.perform(get("/api/auth/user/" + user.getId()).with(from(address)))
+			.andReturn().getResponse().getContentAsString();
+	}
+
+	private static RequestPostProcessor from(String address) {
+		return request -> {
+			request.setRemoteAddr(address);
+			return request;
+		};
+	}
+
+	// La "replicación": volcado completo del primario cargado en la réplica
+	private void copyPrimaryToReplica() throws Exception {
+		List<String> script = new ArrayList<>();
+		try (Connection primary = dataSource.getConnection();
+			 Statement statement = primary.createStatement();
+			 ResultSet rows = statement.executeQuery("SCRIPT")) {
+			while (rows.next()) {
+				script.add(rows.getString(1));
+			}
+		}
+		try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+			 Statement statement = replica.createStatement()) {
+			statement.execute("DROP ALL OBJECTS");
+			for (String sql : script) {
+				statement.execute(sql);
+			}
+		}
+	}
+}
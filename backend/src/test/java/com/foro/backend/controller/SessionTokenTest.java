@@ -0,0 +1,121 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.model.Post;
+import com.foro.backend.model.User;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.SessionTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SessionTokenTest {
+
+	private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private SessionTokenService sessionTokens;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private PostLikeRepository postLikeRepository;
+
+	@Test
+	void loginTokenAuthorizesMutationsWithoutUserId() throws Exception {
+		User admin = new User("token_admin", "token_admin@test.com", "secret");
+		admin.setRole("ADMIN");
+		admin = userRepository.save(admin);
+		User reader = userRepository.save(new User("token_reader", "token_reader@test.com", "secret"));
+		Post post = postRepository.save(postBy(admin));
+
+		String adminToken = login("token_admin");
+		String readerToken = login("token_reader");
+		SessionTokenService.Claims claims = sessionTokens.verify(adminToken);
+		assertEquals(admin.getId(), claims.userId());
+		assertTrue(claims.isAdmin());
+
+		// El like se apunta al usuario del token, aunque se mande otro userId
+		mvc.perform(post("/api/posts/" + post.getId() + "/like")
+				.param("userId", admin.getId().toString())
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + readerToken))
+			.andExpect(status().isOk());
+		assertTrue(postLikeRepository.existsByUserIdAndPostId(reader.getId(), post.getId()));
+
+		// El rol va firmado: un lector no crea artículos y un admin sí, sin userId
+		mvc.perform(multipart("/api/articles").param("title", "T").param("summary", "R")
+				.param("content", "C").param("category", "Ciencia")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + readerToken))
+			.andExpect(status().isForbidden());
+		mvc.perform(multipart("/api/articles").param("title", "T").param("summary", "R")
+				.param("content", "C").param("category", "Ciencia")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + adminToken))
+			.andExpect(status().isOk());
+	}
+
+	@Test
+	void tamperedTokensAreRejectedOnWritesAndIgnoredOnReads() throws Exception {
+		User user = userRepository.save(new User("token_tamper", "token_tamper@test.com", "secret"));
+		Post post = postRepository.save(postBy(user));
+		String token = login("token_tamper");
+
+		// Mismo payload con el rol cambiado: la firma ya no cuadra
+		String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+		String forged = Base64.getUrlEncoder().withoutPadding()
+			.encodeToString(payload.replace(":USER:", ":ADMIN:").getBytes()) + token.substring(token.indexOf('.'));
+		assertNull(sessionTokens.verify(forged));
+
+		mvc.perform(post("/api/posts/" + post.getId() + "/like")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+			.andExpect(status().isUnauthorized());
+		mvc.perform(get("/api/posts").header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+			.andExpect(status().isOk());
+	}
+
+	private static Post postBy(User author) {
+		Post post = new Post("Título", "Texto", 0, 0, null);
+		post.setUser(author);
+		return post;
+	}
+
+	private String login(String username) throws Exception {
+		String body = mvc.perform(post("/api/auth/login")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"" + username + "\",\"password\":\"secret\"}"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		Matcher matcher = TOKEN.matcher(body);
+		assertTrue(matcher.find(), body);
+		assertNotNull(matcher.group(1));
+		return matcher.group(1);
+	}
+}
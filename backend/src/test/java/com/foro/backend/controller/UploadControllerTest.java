@@ -0,0 +1,148 @@
+package com.foro.backend.controller;
+
+import com.foro.backend.model.User;
+import com.foro.backend.repository.StoredBlobRepository;
+import com.foro.backend.repository.UserRepository;
+import com.foro.backend.service.ImageVariant;
+import com.foro.backend.service.UploadStorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UploadControllerTest {
+
+	@TempDir
+	static Path uploadDir;
+
+	@DynamicPropertySource
+	static void uploadProperties(DynamicPropertyRegistry registry) {
+		registry.add("foro.uploads.dir", () -> uploadDir.toString());
+		registry.add("foro.uploads.public-url", () -> "http://test/uploads/");
+	}
+
+	@Autowired
+	private UploadStorageService uploadStorage;
+
+	@Autowired
+	private StoredBlobRepository storedBlobRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void servesImmutableFilesWithContentEtagAndNotModified() throws Exception {
+		byte[] png = png();
+		UploadStorageService.StoredUpload upload = uploadStorage.store(new MockMultipartFile("image", "a.png", "image/png", png));
+		String path = "/uploads/" + upload.fileName();
+
+		MockHttpServletResponse full = mvc.perform(get(path)).andReturn().getResponse();
+		assertEquals(200, full.getStatus());
+		assertEquals("\"" + upload.hash() + "\"", full.getHeader("ETag"));
+		assertEquals("public, max-age=31536000, immutable", full.getHeader("Cache-Control"));
+		assertEquals("image/png", full.getContentType());
+		assertArrayEquals(png, full.getContentAsByteArray());
+
+		MockHttpServletResponse revalidated = mvc.perform(get(path).header("If-None-Match", full.getHeader("ETag")))
+			.andReturn().getResponse();
+		assertEquals(304, revalidated.getStatus());
+		assertEquals(0, revalidated.getContentAsByteArray().length);
+	}
+
+	@Test
+	void servesByteRanges() throws Exception {
+		byte[] png = png();
+		UploadStorageService.StoredUpload upload = uploadStorage.store(new MockMultipartFile("image", "a.png", "image/png", png));
+		String path = "/uploads/" + upload.fileName();
+
+		MockHttpServletResponse partial = mvc.perform(get(path).header("Range", "bytes=100-199")).andReturn().getResponse();
+		assertEquals(206, partial.getStatus());
+		assertEquals("bytes 100-199/" + png.length, partial.getHeader("Content-Range"));
+		assertArrayEquals(Arrays.copyOfRange(png, 100, 200), partial.getContentAsByteArray());
+
+		MockHttpServletResponse unsatisfiable = mvc.perform(get(path).header("Range", "bytes=" + png.length + "-"))
+			.andReturn().getResponse();
+		assertEquals(416, unsatisfiable.getStatus());
+	}
+
+	@Test
+	void pendingVariantIsTheRevalidatedOriginalAndHiddenPathsAreNotServed() throws Exception {
+		UploadStorageService.StoredUpload upload = uploadStorage.store(new MockMultipartFile("image", "a.png", "image/png", png()));
+		String variantPath = ImageVariant.FEED.urlFor(upload.url()).substring("http://test".length());
+
+		MockHttpServletResponse pending = mvc.perform(get(variantPath)).andReturn().getResponse();
+		assertEquals(200, pending.getStatus());
+		assertEquals("public, no-cache", pending.getHeader("Cache-Control"));
+
+		Files.createDirectories(uploadDir.resolve(".tmp"));
+		Files.write(uploadDir.resolve(".tmp").resolve("x.part"), new byte[] {1});
+		assertEquals(404, mvc.perform(get("/uploads/.tmp/x.part")).andReturn().getResponse().getStatus());
+		assertEquals(404, mvc.perform(get("/uploads/no-existe.png")).andReturn().getResponse().getStatus());
+	}
+
+	@Test
+	void failedSaveReleasesTheUploadedImage() throws Exception {
+		byte[] png = png();
+		// Un título más largo que la columna hace fallar el INSERT después de guardar la imagen
+		assertThrows(Exception.class, () -> mvc.perform(multipart("/api/posts")
+			.file(new MockMultipartFile("image", "a.png", "image/png", png))
+			.param("title", "x".repeat(1000))
+			.param("content", "Contenido")));
+
+		String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png));
+		assertEquals(0, storedBlobRepository.findById(hash).orElseThrow().getRefCount());
+	}
+
+	@Test
+	void profileUpdateCannotPointTheAvatarAtAnotherUpload() throws Exception {
+		UploadStorageService.StoredUpload upload = uploadStorage.store(new MockMultipartFile("image", "a.png", "image/png", png()));
+		User user = userRepository.save(new User("avatar_thief", "avatar_thief@test.com", "secret"));
+
+		MockHttpServletResponse response = mvc.perform(put("/api/auth/user/" + user.getId())
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"bio\":\"Hola\",\"avatar\":\"" + upload.url() + "\"}")).andReturn().getResponse();
+
+		assertEquals(200, response.getStatus());
+		assertNull(userRepository.findById(user.getId()).orElseThrow().getAvatar());
+		assertEquals(1, storedBlobRepository.findById(upload.hash()).orElseThrow().getRefCount());
+	}
+
+	private static byte[] png() {
+		byte[] data = new byte[4096];
+		Arrays.fill(data, (byte) System.nanoTime());
+		byte[] header = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+		System.arraycopy(header, 0, data, 0, header.length);
+		// Cada llamada da un fichero distinto, con sus propias referencias
+		ByteBuffer.wrap(data, header.length, Long.BYTES).putLong(System.nanoTime());
+		return data;
+	}
+}
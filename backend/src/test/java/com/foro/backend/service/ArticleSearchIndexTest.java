@@ -0,0 +1,106 @@
+package com.foro.backend.service;
+
+import com.foro.backend.dto.ArticlePreviewDto;
+import com.foro.backend.model.Article;
+import com.foro.backend.repository.ArticleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ArticleSearchIndexTest {
+
+	@Autowired
+	private ArticleSearchIndex searchIndex;
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	@Test
+	void foldsAccentsStripsHtmlAndRanksTitleMatchesFirst() {
+		Article inTitle = save("Canción del verano generada por IA", "Resumen", "<p>Texto sin más</p>");
+		Article inBody = save("Novedades", "Resumen", "<div class=\"nota\">Una <b>CANCION</b> en el cuerpo</div>");
+		save("Otro tema", "Resumen", "<p>Nada que ver</p>");
+
+		List<Long> ids = ids(searchIndex.search("cancion", null, null, 10));
+		assertEquals(List.of(inTitle.getId(), inBody.getId()), ids);
+
+		assertTrue(searchIndex.search("nota", null, null, 10).hits().isEmpty());
+		assertEquals(List.of(inTitle.getId()), ids(searchIndex.search("CANCIÓN verano", null, null, 1)));
+	}
+
+	@Test
+	void keepsTheEñeAndPagesWithTheCursor() {
+		List<Long> expected = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			expected.add(save("Resumen del año " + i, "Resumen", "Contenido").getId());
+		}
+		save("Un ano cualquiera", "Resumen", "Contenido");
+
+		List<Long> seen = new ArrayList<>();
+		ArticleSearchIndex.Page page = searchIndex.search("año", null, null, 2);
+		while (true) {
+			seen.addAll(ids(page));
+			if (page.last() == null) break;
+			page = searchIndex.search("año", page.last().score(), page.last().preview().id(), 2);
+		}
+		Collections.reverse(expected);
+		assertEquals(expected, seen);
+	}
+
+	@Test
+	void removedArticlesDisappearFromResults() {
+		Article article = save("Ciberseguridad cuántica", "Resumen", "Contenido");
+		assertEquals(1, searchIndex.search("cuantica", null, null, 10).total());
+
+		searchIndex.remove(article.getId());
+		ArticleSearchIndex.Page page = searchIndex.search("cuantica", null, null, 10);
+		assertEquals(0, page.total());
+		assertNull(page.last());
+	}
+
+	@Test
+	void reindexingAndDeletingReusesDocumentSlots() {
+		List<Article> articles = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			articles.add(save("Robótica educativa " + i, "Resumen", "Contenido"));
+		}
+		int slots = searchIndex.documentSlots();
+
+		// Cada reindexado deja una versión vieja; la compactación las quita y renumera
+		for (int round = 0; round < 10; round++) {
+			for (Article article : articles) {
+				searchIndex.index(article);
+			}
+		}
+		for (Article article : articles.subList(25, 50)) {
+			searchIndex.remove(article.getId());
+		}
+		assertTrue(searchIndex.documentSlots() < slots + 100, "huecos: " + searchIndex.documentSlots());
+
+		ArticleSearchIndex.Page page = searchIndex.search("robotica", null, null, 100);
+		assertEquals(25, page.total());
+		assertEquals(Set.copyOf(articles.subList(0, 25).stream().map(Article::getId).toList()), Set.copyOf(ids(page)));
+	}
+
+		private Article save(String title, String summary, String content) {
+		Article article = articleRepository.save(new Article(title, summary, content, null, "Software", null));
+		searchIndex.index(article);
+		return article;
+	}
+
+	private static List<Long> ids(ArticleSearchIndex.Page page) {
+		return page.hits().stream().map(ArticleSearchIndex.Hit::preview).map(ArticlePreviewDto::id).toList();
+	}
+}
@@ -0,0 +1,78 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.ArticleCreatedEvent;
+import com.foro.backend.event.ArticleDeletedEvent;
+import com.foro.backend.model.Article;
+import com.foro.backend.repository.ArticleRepository;
+import com.foro.backend.util.Cursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryRegistryTest {
+
+	@Autowired
+	private CategoryRegistry categoryRegistry;
+
+	@Autowired
+	private ArticleRepository articleRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Test
+	void countsAndNewestIdsFollowCreatesAndDeletes() {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			ids.add(create("Espacio").getId());
+		}
+
+		assertEquals(3, categoryRegistry.count("Espacio"));
+		List<String> names = categoryRegistry.names();
+		assertEquals(CategoryRegistry.DEFAULT_CATEGORIES, names.subList(0, CategoryRegistry.DEFAULT_CATEGORIES.size()));
+		assertTrue(names.contains("Espacio"));
+
+		List<Cursor.TimeId> firstPage = categoryRegistry.newest("Espacio", null, 2);
+		assertEquals(List.of(ids.get(2), ids.get(1)), firstPage.stream().map(Cursor.TimeId::id).toList());
+		List<Cursor.TimeId> secondPage = categoryRegistry.newest("Espacio", firstPage.get(1), 2);
+		assertEquals(List.of(ids.get(0)), secondPage.stream().map(Cursor.TimeId::id).toList());
+
+		Article deleted = articleRepository.findById(ids.get(2)).orElseThrow();
+		articleRepository.delete(deleted);
+		eventPublisher.publishEvent(new ArticleDeletedEvent(deleted.getId(), deleted.getCategory(), deleted.isPublished()));
+
+		assertEquals(2, categoryRegistry.count("Espacio"));
+		assertEquals(List.of(ids.get(1), ids.get(0)),
+			categoryRegistry.newest("Espacio", null, 10).stream().map(Cursor.TimeId::id).toList());
+	}
+
+	@Test
+	void pagesBeyondTheNewestListGoToTheDatabase() {
+		for (int i = 0; i < CategoryRegistry.NEWEST_PER_CATEGORY + 5; i++) {
+			create("Robótica");
+		}
+
+		assertEquals(CategoryRegistry.NEWEST_PER_CATEGORY + 5, categoryRegistry.count("Robótica"));
+		List<Cursor.TimeId> page = categoryRegistry.newest("Robótica", null, CategoryRegistry.NEWEST_PER_CATEGORY);
+		assertEquals(CategoryRegistry.NEWEST_PER_CATEGORY, page.size());
+		assertNull(categoryRegistry.newest("Robótica", page.get(page.size() - 1), 10));
+		assertTrue(categoryRegistry.newest("Sin artículos", null, 10).isEmpty());
+	}
+
+	private Article create(String category) {
+		Article article = articleRepository.save(new Article("Título", "Resumen", "Contenido", null, category, null));
+		eventPublisher.publishEvent(new ArticleCreatedEvent(article.getId()));
+		return article;
+	}
+}
@@ -0,0 +1,83 @@
+package com.foro.backend.service;
+
+import com.foro.backend.model.Comment;
+import com.foro.backend.model.Post;
+import com.foro.backend.model.PostLike;
+import com.foro.backend.model.User;
+import com.foro.backend.repository.CommentRepository;
+import com.foro.backend.repository.JobCheckpointRepository;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import com.foro.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "foro.reconcile.chunk-size=2")
+@ActiveProfiles("test")
+class CounterReconciliationJobTest {
+
+	@Autowired
+	private CounterReconciliationJob job;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private PostLikeRepository postLikeRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JobCheckpointRepository checkpointRepository;
+
+	@Test
+	void correctsDriftedCountersInChunksAndResumesFromTheCheckpoint() {
+		User user = userRepository.save(new User("reconcile", "reconcile@test.com", "secret"));
+		// Contadores inventados, como los de los posts de ejemplo
+		Post liked = postRepository.save(new Post("Con likes", "texto", 40, 0, null));
+		Post threaded = postRepository.save(new Post("Con hilo", "texto", 0, 1, null));
+		Post exact = postRepository.save(new Post("Correcto", "texto", 1, 0, null));
+
+		postLikeRepository.save(new PostLike(1L, liked.getId()));
+		postLikeRepository.save(new PostLike(2L, liked.getId()));
+		postLikeRepository.save(new PostLike(1L, exact.getId()));
+		// Respuestas de varios niveles: deleteComment solo descuenta el primero
+		Comment root = commentRepository.save(new Comment("raíz", threaded, user));
+		Comment reply = commentRepository.save(new Comment("respuesta", threaded, user, root));
+		commentRepository.save(new Comment("respuesta a la respuesta", threaded, user, reply));
+
+		long total = postRepository.count();
+
+		// Un solo tramo: se detiene a medias y deja el checkpoint en el último id revisado
+		CounterReconciliationJob.Result first = job.run(1);
+		assertEquals(2, first.scanned());
+		assertFalse(first.finished());
+		long checkpoint = checkpointRepository.findById(CounterReconciliationJob.CHECKPOINT).orElseThrow().getLastId();
+		assertTrue(checkpoint > 0);
+
+		CounterReconciliationJob.Result rest = job.run(0);
+		assertEquals(total - 2, rest.scanned());
+		assertTrue(rest.finished());
+		assertEquals(0, checkpointRepository.findById(CounterReconciliationJob.CHECKPOINT).orElseThrow().getLastId());
+
+		assertEquals(2, postRepository.findById(liked.getId()).orElseThrow().getLikes());
+		assertEquals(3, postRepository.findById(threaded.getId()).orElseThrow().getComments());
+		assertEquals(1, postRepository.findById(exact.getId()).orElseThrow().getLikes());
+		// Los de ejemplo también; el que ya cuadraba no cuenta como corregido
+		assertEquals(total - 1, first.corrected() + rest.corrected());
+
+		CounterReconciliationJob.Result again = job.run(0);
+		assertEquals(total, again.scanned());
+		assertEquals(0, again.corrected());
+	}
+}
@@ -0,0 +1,105 @@
+package com.foro.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {
+	"foro.db.admission.permits=1",
+	"foro.db.admission.max-queue=0",
+	"foro.db.admission.retry-after-seconds=3"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class DbAdmissionTest {
+
+	@Autowired
+	private DbAdmission admission;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void saturatedRequestsFailFastWith503AndRetryAfter() throws Exception {
+		// El hilo del test se queda el único permiso; la petición no tiene sitio en la cola
+		admission.acquire(DbAdmission.Priority.WRITE);
+		try {
+			long start = System.nanoTime();
+			MockHttpServletResponse rejected = mvc.perform(get("/api/auth/user/1")).andReturn().getResponse();
+			assertEquals(503, rejected.getStatus());
+			assertEquals("3", rejected.getHeader("Retry-After"));
+			assertTrue(rejected.getContentAsString().contains("error"));
+			assertTrue(System.nanoTime() - start < 1_000_000_000L, "no debe esperar al pool");
+		} finally {
+			admission.release();
+		}
+
+		assertEquals(404, mvc.perform(get("/api/auth/user/1")).andReturn().getResponse().getStatus());
+		Map<?, ?> reads = (Map<?, ?>) admission.stats().get("read");
+		assertEquals(1L, reads.get("rejectedQueueFull"));
+	}
+
+	@Test
+	void queuedWritesGoFirstButReadsAreNotStarved() throws Exception {
+		DbAdmission gate = new DbAdmission(1, 10, 5000, 2, 1);
+		gate.acquire(DbAdmission.Priority.WRITE);
+
+		List<String> order = new CopyOnWriteArrayList<>();
+		List<Thread> threads = List.of(
+			waiter(gate, DbAdmission.Priority.READ, "r1", order),
+			waiter(gate, DbAdmission.Priority.WRITE, "w1", order),
+			waiter(gate, DbAdmission.Priority.WRITE, "w2", order),
+			waiter(gate, DbAdmission.Priority.WRITE, "w3", order),
+			waiter(gate, DbAdmission.Priority.READ, "r2", order));
+		for (Thread thread : threads) {
+			int queued = (int) gate.stats().get("queueDepth");
+			thread.start();
+			while ((int) gate.stats().get("queueDepth") == queued) {
+				Thread.sleep(1);
+			}
+		}
+
+		gate.release();
+		for (Thread thread : threads) {
+			thread.join(5000);
+		}
+		// Dos escrituras seguidas (write-burst), luego una lectura, y así sucesivamente
+		assertEquals(List.of("w1", "w2", "r1", "w3", "r2"), order);
+		assertEquals(1, gate.stats().get("available"));
+	}
+
+	@Test
+	void waitersGiveUpAfterMaxWait() throws Exception {
+		DbAdmission gate = new DbAdmission(1, 10, 50, 4, 1);
+		gate.acquire(DbAdmission.Priority.READ);
+		assertThrows(DbAdmission.SaturatedException.class, () -> gate.acquire(DbAdmission.Priority.READ));
+		assertEquals(0, gate.stats().get("queueDepth"));
+		gate.release();
+		gate.acquire(DbAdmission.Priority.READ);
+	}
+
+	private static Thread waiter(DbAdmission gate, DbAdmission.Priority priority, String name, List<String> order) {
+		return new Thread(() -> {
+			try {
+				gate.acquire(priority);
+				order.add(name);
+				gate.release();
+			} catch (DbAdmission.SaturatedException e) {
+				order.add(name + " rechazado");
+			}
+		});
+	}
+}
@@ -0,0 +1,197 @@
+package com.foro.backend.service;
+
+import com.foro.backend.event.PostsChangedEvent;
+import com.foro.backend.model.User;
+import com.foro.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest(properties = "foro.feed-cache.ttl-seconds=300")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class FeedCacheTest {
+
+	private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+	private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":\"([^\"]+)\"");
+
+	@Autowired
+	private FeedCache feedCache;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void hitsUntilAPostOnThePageChanges() throws Exception {
+		User author = userRepository.save(new User("cache_author", "cache_author@test.com", "secret"));
+		long offPage = createPost(author);
+		createPost(author);
+		long newest = createPost(author);
+
+		assertMiss(this::firstPage);
+		assertHit(this::firstPage);
+
+		// Un post nuevo cambia la primera página
+		newest = createPost(author);
+		assertMiss(this::firstPage);
+		assertHit(this::firstPage);
+
+		// Un like a un post de fuera de la página no la toca; uno de dentro, sí
+		perform(post("/api/posts/" + offPage + "/like").param("userId", author.getId().toString()));
+		assertHit(this::firstPage);
+		perform(post("/api/posts/" + newest + "/like").param("userId", author.getId().toString()));
+		assertMiss(this::firstPage);
+
+		String comment = perform(post("/api/posts/" + newest + "/comments")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"userId\":" + author.getId() + ",\"content\":\"Hola\"}"));
+		assertMiss(this::firstPage);
+		assertHit(this::firstPage);
+
+		perform(delete("/api/posts/" + newest + "/comments/" + firstId(comment)).param("userId", author.getId().toString()));
+		assertMiss(this::firstPage);
+
+		// Sin parámetros (el feed entero) no pasa por la caché
+		long hits = stat("hits");
+		long misses = stat("misses");
+		perform(get("/api/posts"));
+		assertEquals(hits, stat("hits"));
+		assertEquals(misses, stat("misses"));
+	}
+
+	@Test
+	void profileChangeDropsOnlyThatAuthorsPages() throws Exception {
+		User other = userRepository.save(new User("cache_other", "cache_other@test.com", "secret"));
+		User author = userRepository.save(new User("cache_profile", "cache_profile@test.com", "secret"));
+		createPost(other);
+		createPost(other);
+		createPost(author);
+		createPost(author);
+
+		Matcher cursor = NEXT_CURSOR.matcher(firstPage());
+		assertTrue(cursor.find());
+		RequestBuilder secondPage = get("/api/posts").param("limit", "2").param("before", cursor.group(1));
+		assertMiss(() -> perform(secondPage));
+		assertHit(() -> perform(secondPage));
+		assertHit(this::firstPage);
+
+		perform(put("/api/auth/user/" + author.getId())
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"displayName\":\"Nuevo nombre\"}"));
+
+		assertHit(() -> perform(secondPage));
+		assertMiss(this::firstPage);
+		String first = firstPage();
+		assertTrue(first.contains("Nuevo nombre"), first);
+	}
+
+	@Test
+	void pageReadBeforeAnInvalidationIsNotStored() {
+		FeedCache cache = new FeedCache(true, 8, 30, 5);
+		FeedCache.Key key = new FeedCache.Key(null, 20);
+
+		long stamp = cache.stamp();
+		cache.onPostsChanged(new PostsChangedEvent(List.of(1L)));
+		cache.put(key, page(1), stamp);
+		assertNull(cache.get(key));
+
+		cache.put(key, page(1), cache.stamp());
+		assertNotNull(cache.get(key));
+	}
+
+	@Test
+	void countsLruAndTtlEvictions() throws Exception {
+		FeedCache cache = new FeedCache(true, 2, 30, 5);
+		FeedCache.Key first = new FeedCache.Key(null, 10);
+		FeedCache.Key second = new FeedCache.Key(null, 20);
+		FeedCache.Key third = new FeedCache.Key(null, 30);
+		cache.put(first, page(1), cache.stamp());
+		cache.put(second, page(2), cache.stamp());
+		cache.get(first);
+		cache.put(third, page(3), cache.stamp());
+
+		assertNull(cache.get(second));
+		assertNotNull(cache.get(first));
+		assertNotNull(cache.get(third));
+		assertEquals(1L, cache.stats().get("evictions"));
+		assertEquals(2, cache.stats().get("size"));
+
+		FeedCache expiring = new FeedCache(true, 2, 0, 5);
+		expiring.put(first, page(1), expiring.stamp());
+		Thread.sleep(2);
+		assertNull(expiring.get(first));
+		assertEquals(1L, expiring.stats().get("evictions"));
+		assertEquals(0, expiring.stats().get("size"));
+	}
+
+	private interface Request {
+		String run() throws Exception;
+	}
+
+	private String firstPage() throws Exception {
+		return perform(get("/api/posts").param("limit", "2"));
+	}
+
+	private long createPost(User author) throws Exception {
+		return firstId(perform(multipart("/api/posts")
+			.param("title", "Post de " + author.getUsername())
+			.param("content", "Contenido")
+			.param("userId", author.getId().toString())));
+	}
+
+	private String perform(RequestBuilder request) throws Exception {
+		var response = mvc.perform(request).andReturn().getResponse();
+		assertEquals(200, response.getStatus(), response.getContentAsString());
+		return response.getContentAsString();
+	}
+
+	private void assertHit(Request request) throws Exception {
+		long hits = stat("hits");
+		request.run();
+		assertEquals(hits + 1, stat("hits"));
+	}
+
+	private void assertMiss(Request request) throws Exception {
+		long misses = stat("misses");
+		request.run();
+		assertEquals(misses + 1, stat("misses"));
+	}
+
+	private long stat(String name) {
+		Map<String, Object> stats = feedCache.stats();
+		return (Long) stats.get(name);
+	}
+
+	private static long firstId(String json) {
+		Matcher id = ID.matcher(json);
+		assertTrue(id.find(), json);
+		return Long.parseLong(id.group(1));
+	}
+
+	private static FeedCache.Page page(long postId) {
+		return new FeedCache.Page(List.of(), new long[] {postId}, new long[] {100 + postId}, null);
+	}
+}
@@ -0,0 +1,93 @@
+package com.foro.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ImageVariantServiceTest {
+
+	@TempDir
+	static Path uploadDir;
+
+	@DynamicPropertySource
+	static void uploadProperties(DynamicPropertyRegistry registry) {
+		registry.add("foro.uploads.dir", () -> uploadDir.toString());
+		registry.add("foro.uploads.public-url", () -> "http://test/uploads/");
+	}
+
+	@Autowired
+	private UploadStorageService uploadStorage;
+
+	@Autowired
+	private ImageVariantService imageVariants;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void variantUrlFallsBackToTheOriginalUntilItIsGenerated() throws Exception {
+		byte[] original = jpeg(1600, 1200);
+		UploadStorageService.StoredUpload upload = uploadStorage.store(new MockMultipartFile("image", "a.jpg", "image/jpeg", original));
+		String variantPath = ImageVariant.FEED.urlFor(upload.url()).substring("http://test".length());
+
+		assertArrayEquals(original, mvc.perform(get(variantPath)).andReturn().getResponse().getContentAsByteArray());
+
+		assertTrue(imageVariants.generate(upload.fileName(), upload.type(), ImageVariant.FEED));
+		byte[] served = mvc.perform(get(variantPath)).andReturn().getResponse().getContentAsByteArray();
+		BufferedImage variant = ImageIO.read(new ByteArrayInputStream(served));
+		assertEquals(800, variant.getWidth());
+		assertEquals(600, variant.getHeight());
+		assertTrue(served.length < original.length);
+	}
+
+	@Test
+	void avatarsAreCroppedSquareAndSmallImagesKeepTheOriginal() throws Exception {
+		UploadStorageService.StoredUpload avatar = uploadStorage.store(new MockMultipartFile("avatar", "a.jpg", "image/jpeg", jpeg(640, 480)));
+		assertTrue(imageVariants.generate(avatar.fileName(), avatar.type(), ImageVariant.AVATAR));
+		BufferedImage thumb = ImageIO.read(ImageVariant.AVATAR.pathIn(uploadStorage.uploadDir(), avatar.fileName()).toFile());
+		assertEquals(96, thumb.getWidth());
+		assertEquals(96, thumb.getHeight());
+
+		UploadStorageService.StoredUpload small = uploadStorage.store(new MockMultipartFile("image", "b.jpg", "image/jpeg", jpeg(300, 200)));
+		assertFalse(imageVariants.generate(small.fileName(), small.type(), ImageVariant.FEED));
+		assertFalse(Files.exists(ImageVariant.FEED.pathIn(uploadStorage.uploadDir(), small.fileName())));
+	}
+
+	private static byte[] jpeg(int width, int height) throws Exception {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(new Color((int) System.nanoTime()));
+		g.fillRect(0, 0, width, height);
+		g.setColor(Color.WHITE);
+		g.fillOval(width / 4, height / 4, width / 2, height / 2);
+		g.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpeg", out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,82 @@
+package com.foro.backend.service;
+
+import com.foro.backend.model.Post;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LikeServiceConcurrencyTest {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private LikeService likeService;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private PostLikeRepository postLikeRepository;
+
+	@Test
+	void parallelLikesFromDistinctUsersAreAllCounted() throws Exception {
+		Long postId = postRepository.save(new Post("Viral", "Contenido", 0, 0, null)).getId();
+
+		List<Callable<Boolean>> toggles = new ArrayList<>();
+		for (long userId = 1; userId <= 2000; userId++) {
+			long user = userId;
+			toggles.add(() -> likeService.toggle(user, postId));
+		}
+		runAll(toggles);
+
+		assertEquals(2000, postRepository.findById(postId).orElseThrow().getLikes());
+		assertEquals(2000, postLikeRepository.countByPostId(postId));
+	}
+
+	@Test
+	void concurrentDoubleClicksKeepCounterEqualToLikeRows() throws Exception {
+		Long postId = postRepository.save(new Post("Viral", "Contenido", 0, 0, null)).getId();
+
+		// 500 usuarios que hacen varios clicks cada uno, mezclados entre sí
+		List<Callable<Boolean>> toggles = new ArrayList<>();
+		for (long userId = 1; userId <= 500; userId++) {
+			long user = userId;
+			for (int click = 0; click < 5; click++) {
+				toggles.add(() -> likeService.toggle(user, postId));
+			}
+		}
+		Collections.shuffle(toggles, new Random(42));
+		runAll(toggles);
+
+		int rows = postLikeRepository.countByPostId(postId);
+		assertEquals(rows, postRepository.findById(postId).orElseThrow().getLikes());
+	}
+
+	private void runAll(List<Callable<Boolean>> tasks) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			// get() propaga cualquier excepción: un 500 en producción haría fallar el test
+			for (Future<Boolean> result : pool.invokeAll(tasks)) {
+				result.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
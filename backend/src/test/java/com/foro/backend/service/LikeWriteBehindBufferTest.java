@@ -0,0 +1,145 @@
+package com.foro.backend.service;
+
+import com.foro.backend.model.Post;
+import com.foro.backend.model.PostLike;
+import com.foro.backend.repository.PostLikeRepository;
+import com.foro.backend.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+	"foro.likes.write-behind.enabled=true",
+	// El test vacía el buffer a mano
+	"foro.likes.write-behind.flush-interval-ms=3600000",
+	"foro.likes.write-behind.max-pending=500"
+})
+@ActiveProfiles("test")
+class LikeWriteBehindBufferTest {
+
+	@Autowired
+	private LikeService likeService;
+
+	@Autowired
+	private LikeWriteBehindBuffer buffer;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private PostLikeRepository postLikeRepository;
+
+	@MockitoSpyBean
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void likeAndUnlikeCancelOutBeforeReachingTheDatabase() {
+		Long postId = postRepository.save(new Post("Post", "Contenido", 0, 0, null)).getId();
+
+		assertTrue(likeService.toggle(1L, postId));
+		assertEquals(1, likeService.visibleLikes(postId, 0));
+		assertTrue(likeService.visibleLiked(1L, postId, false));
+
+		assertFalse(likeService.toggle(1L, postId));
+		assertEquals(0, buffer.pendingDelta(postId));
+
+		buffer.flush();
+		assertEquals(0, postLikeRepository.countByPostId(postId));
+		assertEquals(0, postRepository.findById(postId).orElseThrow().getLikes());
+	}
+
+	@Test
+	void rowThatViolatesAConstraintIsDroppedWithoutBlockingTheRest() {
+		Long postId = postRepository.save(new Post("Post", "Contenido", 0, 0, null)).getId();
+
+		assertTrue(likeService.toggle(1L, postId));
+		assertTrue(likeService.toggle(2L, postId));
+		assertTrue(likeService.toggle(3L, postId));
+		// Alguien escribe el like del usuario 2 por otro camino: su insert chocará con la restricción única
+		postLikeRepository.save(new PostLike(2L, postId));
+
+		buffer.flush();
+
+		assertEquals(0, buffer.pendingCount());
+		assertEquals(0, buffer.pendingDelta(postId));
+		assertEquals(3, postLikeRepository.countByPostId(postId));
+		assertEquals(2, postRepository.findById(postId).orElseThrow().getLikes());
+	}
+
+	@Test
+	void deletesWithoutRowCountsAreRecounted() {
+		Long postId = postRepository.save(new Post("Post", "Contenido", 0, 0, null)).getId();
+		for (long userId = 1; userId <= 3; userId++) {
+			likeService.toggle(userId, postId);
+		}
+		buffer.flush();
+
+		assertFalse(likeService.toggle(1L, postId));
+		assertFalse(likeService.toggle(2L, postId));
+		// El like del usuario 2 se quita por otro camino: su DELETE del volcado no borrará nada
+		postLikeRepository.deleteLike(2L, postId);
+		postRepository.addToLikes(postId, -1);
+
+		// Driver que no informa de las filas borradas en modo batch
+		doAnswer(invocation -> {
+			int[][] counts = (int[][]) invocation.callRealMethod();
+			for (int[] chunk : counts) {
+				Arrays.fill(chunk, Statement.SUCCESS_NO_INFO);
+			}
+			return counts;
+		}).when(jdbcTemplate).batchUpdate(startsWith("delete from post_likes"), anyCollection(), anyInt(), any());
+		buffer.flush();
+
+		assertEquals(1, postLikeRepository.countByPostId(postId));
+		assertEquals(1, postRepository.findById(postId).orElseThrow().getLikes());
+	}
+
+	@Test
+	void flushedCountsMatchLikeRowsUnderConcurrency() throws Exception {
+		Long postId = postRepository.save(new Post("Viral", "Contenido", 0, 0, null)).getId();
+
+		// Más toggles que max-pending: obliga a vaciar por backpressure
+		List<Callable<Boolean>> toggles = new ArrayList<>();
+		for (long userId = 1; userId <= 1500; userId++) {
+			long user = userId;
+			toggles.add(() -> likeService.toggle(user, postId));
+			if (userId % 3 == 0) {
+				toggles.add(() -> likeService.toggle(user, postId));
+			}
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		try {
+			for (Future<Boolean> result : pool.invokeAll(toggles)) {
+				result.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		buffer.flush();
+
+		assertEquals(0, buffer.pendingCount());
+		assertEquals(1000, postLikeRepository.countByPostId(postId));
+		assertEquals(1000, postRepository.findById(postId).orElseThrow().getLikes());
+	}
+}
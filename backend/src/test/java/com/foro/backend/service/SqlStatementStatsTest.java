@@ -0,0 +1,71 @@
+package com.foro.backend.service;
+
+import com.foro.backend.config.SqlStatementStatsConfig;
+import com.foro.backend.model.User;
+import com.foro.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = {
+	"foro.sql.stats.header=true",
+	"foro.sql.n-plus-one-threshold=2"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SqlStatementStatsTest {
+
+	@Autowired
+	private SqlStatementStats sqlStatementStats;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void requestsReportTheirStatementsInHeadersAndPerEndpointStats() throws Exception {
+		User user = userRepository.save(new User("sql_stats", "sql_stats@test.com", "secret"));
+
+		MockHttpServletResponse response = mvc.perform(get("/api/auth/user/" + user.getId())).andReturn().getResponse();
+		assertEquals(200, response.getStatus());
+		assertTrue(response.getContentAsString().contains("\"username\":\"sql_stats\""));
+		int statements = Integer.parseInt(response.getHeader(SqlStatementStatsConfig.STATEMENTS_HEADER));
+		assertTrue(statements >= 2, "usuario y estadísticas: " + statements);
+		assertNotNull(response.getHeader(SqlStatementStatsConfig.TIME_HEADER));
+
+		String stats = mvc.perform(get("/api/system/sql/stats")).andReturn().getResponse().getContentAsString();
+		assertTrue(stats.contains("\"GET /api/auth/user/{id}\""), stats);
+	}
+
+	@Test
+	void repeatingOneStatementShapeIsFlaggedAsNPlusOne() {
+		SqlStatementStats.RequestCounter counter = new SqlStatementStats.RequestCounter();
+		for (int i = 0; i < 3; i++) {
+			counter.record("select * from comment where parent_id = ?", 1_000);
+		}
+		counter.record("select * from post where id = ?", 1_000);
+
+		List<String> repeated = sqlStatementStats.record("GET /test/n-plus-one", counter);
+
+		assertEquals(List.of("select * from comment where parent_id = ?"), repeated);
+		@SuppressWarnings("unchecked")
+		Map<String, Object> endpoint = (Map<String, Object>) ((Map<String, Object>) sqlStatementStats.stats().get("endpoints"))
+			.get("GET /test/n-plus-one");
+		assertEquals(1L, endpoint.get("nPlusOneRequests"));
+		assertEquals(4.0, ((Map<?, ?>) endpoint.get("statements")).get("avg"));
+	}
+}
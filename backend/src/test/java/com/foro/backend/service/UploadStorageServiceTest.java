@@ -0,0 +1,93 @@
+package com.foro.backend.service;
+
+import com.foro.backend.repository.StoredBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UploadStorageServiceTest {
+
+	@TempDir
+	static Path uploadDir;
+
+	@DynamicPropertySource
+	static void uploadProperties(DynamicPropertyRegistry registry) {
+		registry.add("foro.uploads.dir", () -> uploadDir.toString());
+		registry.add("foro.uploads.public-url", () -> "http://test/uploads/");
+	}
+
+	@Autowired
+	private UploadStorageService uploadStorage;
+
+	@Autowired
+	private StoredBlobRepository storedBlobRepository;
+
+	@Test
+	void reuploadingTheSameImageReusesOneFile() throws Exception {
+		byte[] png = image(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A);
+
+		UploadStorageService.StoredUpload first = uploadStorage.store(new MockMultipartFile("image", "a.png", "image/png", png));
+		UploadStorageService.StoredUpload second = uploadStorage.store(new MockMultipartFile("image", "otro.jpg", "image/jpeg", png));
+
+		assertEquals(first.url(), second.url());
+		assertFalse(first.deduplicated());
+		assertTrue(second.deduplicated());
+		assertEquals(UploadStorageService.ImageType.PNG, second.type());
+		assertTrue(first.url().endsWith(first.hash() + ".png"));
+		assertArrayEquals(png, Files.readAllBytes(uploadDir.resolve(first.fileName())));
+		assertEquals(2, storedBlobRepository.findById(first.hash()).orElseThrow().getRefCount());
+	}
+
+	@Test
+	void contentThatIsNotAnImageIsRejected() {
+		MockMultipartFile fake = new MockMultipartFile("image", "foto.png", "image/png", "<script>alert(1)</script>".getBytes());
+
+		assertThrows(UploadStorageService.UnsupportedUploadException.class, () -> uploadStorage.store(fake));
+	}
+
+	@Test
+	void unreferencedBlobsAreCollected() throws Exception {
+		byte[] gif = image('G', 'I', 'F', '8', '9', 'a');
+		UploadStorageService.StoredUpload upload = uploadStorage.store(new MockMultipartFile("image", "a.gif", "image/gif", gif));
+		uploadStorage.store(new MockMultipartFile("image", "a.gif", "image/gif", gif));
+		Path file = uploadDir.resolve(upload.fileName());
+
+		uploadStorage.release(upload.url());
+		uploadStorage.collectGarbage(LocalDateTime.now().plusMinutes(1));
+		assertTrue(Files.exists(file));
+
+		uploadStorage.release(upload.url());
+		uploadStorage.collectGarbage(LocalDateTime.now().plusMinutes(1));
+		assertFalse(Files.exists(file));
+		assertFalse(storedBlobRepository.existsById(upload.hash()));
+	}
+
+	// Cabecera válida seguida de datos suficientes para no caber en un solo bloque
+	private static byte[] image(int... header) {
+		byte[] data = new byte[200_000];
+		Arrays.fill(data, (byte) 7);
+		data[data.length - 1] = (byte) System.nanoTime();
+		for (int i = 0; i < header.length; i++) {
+			data[i] = (byte) header[i];
+		}
+		return data;
+	}
+}
@@ -0,0 +1,108 @@
+package com.foro.backend.service;
+
+import com.foro.backend.model.Post;
+import com.foro.backend.model.User;
+import com.foro.backend.model.UserStats;
+import com.foro.backend.repository.PostRepository;
+import com.foro.backend.repository.UserRepository;
+import com.foro.backend.repository.UserStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class UserStatsServiceTest {
+
+	private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+	@Autowired
+	private UserStatsService userStats;
+
+	@Autowired
+	private UserStatsRepository userStatsRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	void statsFollowPostsCommentsAndLikesAndMatchABulkRebuild() throws Exception {
+		User author = userRepository.save(new User("stats_author", "stats_author@test.com", "secret"));
+		User reader = userRepository.save(new User("stats_reader", "stats_reader@test.com", "secret"));
+
+		long postId = idOf(mvc.perform(multipart("/api/posts")
+			.param("title", "Título").param("content", "Texto").param("userId", author.getId().toString()))
+			.andReturn().getResponse().getContentAsString());
+		mvc.perform(post("/api/posts/" + postId + "/like").param("userId", reader.getId().toString()));
+		long commentId = idOf(mvc.perform(post("/api/posts/" + postId + "/comments")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"userId\":" + reader.getId() + ",\"content\":\"Hola\"}"))
+			.andReturn().getResponse().getContentAsString());
+		mvc.perform(post("/api/posts/" + postId + "/comments")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("{\"userId\":" + author.getId() + ",\"content\":\"Respuesta\",\"parentId\":" + commentId + "}"));
+
+		String profile = mvc.perform(get("/api/auth/user/" + author.getId())).andReturn().getResponse().getContentAsString();
+		assertTrue(profile.contains("\"postCount\":1"), profile);
+		assertTrue(profile.contains("\"commentCount\":1"), profile);
+		assertTrue(profile.contains("\"likesReceived\":1"), profile);
+
+		// Borrar el comentario del lector se lleva también la respuesta del autor
+		mvc.perform(delete("/api/posts/" + postId + "/comments/" + commentId).param("userId", reader.getId().toString()));
+		mvc.perform(post("/api/posts/" + postId + "/like").param("userId", reader.getId().toString()));
+		assertStats(author.getId(), 1, 0, 0);
+		assertStats(reader.getId(), 0, 0, 0);
+
+		userStats.rebuildAll();
+		assertStats(author.getId(), 1, 0, 0);
+		assertStats(reader.getId(), 0, 0, 0);
+	}
+
+	@Test
+	void missingRowIsComputedOnReadWithoutInserting() throws Exception {
+		User author = userRepository.save(new User("stats_legacy", "stats_legacy@test.com", "secret"));
+		Post post = new Post("Antiguo", "Texto", 0, 0, null);
+		post.setUser(author);
+		postRepository.save(post);
+
+		String profile = mvc.perform(get("/api/auth/user/" + author.getId())).andReturn().getResponse().getContentAsString();
+		assertTrue(profile.contains("\"postCount\":1"), profile);
+		// La lectura no abre otra transacción para crear la fila
+		assertFalse(userStatsRepository.findById(author.getId()).isPresent());
+	}
+
+	private void assertStats(Long userId, int posts, int comments, int likesReceived) {
+		UserStats stats = userStatsRepository.findById(userId).orElseThrow();
+		assertEquals(posts, stats.getPosts());
+		assertEquals(comments, stats.getComments());
+		assertEquals(likesReceived, stats.getLikesReceived());
+	}
+
+	private static long idOf(String json) {
+		Matcher matcher = ID.matcher(json);
+		assertTrue(matcher.find(), json);
+		return Long.parseLong(matcher.group(1));
+	}
+}
@@ -0,0 +1,22 @@
+package com.foro.backend.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Presupuesto de base de datos de un test: cada petición MockMvc que haga puede ejecutar como
+// mucho "statements" sentencias SQL y leer como mucho "rows" filas (-1 = sin límite).
+// La clase de test tiene que importar QueryBudgetConfiguration y arrancar con
+// foro.sql.stats.header=true, que es de donde salen las cuentas.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+	int statements();
+
+	long rows() default -1;
+}
@@ -0,0 +1,15 @@
+package com.foro.backend.support;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.MockMvcBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+
+// Pasa cada respuesta de MockMvc a QueryBudgetExtension
+@TestConfiguration
+public class QueryBudgetConfiguration {
+
+	@Bean
+	MockMvcBuilderCustomizer queryBudgetObserver() {
+		return builder -> builder.alwaysDo(QueryBudgetExtension::observe);
+	}
+}
@@ -0,0 +1,70 @@
+package com.foro.backend.support;
+
+import com.foro.backend.config.SqlStatementStatsConfig;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Comprueba @QueryBudget al acabar el test con las cabeceras X-SQL-* de cada respuesta, que
+// recoge observe() (lo engancha QueryBudgetConfiguration a todas las peticiones de MockMvc)
+public class QueryBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+	private record Measured(String request, int statements, long rows) {}
+
+	// MockMvc atiende las peticiones en el hilo del test
+	private static final ThreadLocal<List<Measured>> MEASURED = new ThreadLocal<>();
+
+	static void observe(MvcResult result) {
+		List<Measured> measured = MEASURED.get();
+		if (measured == null) {
+			return;
+		}
+		MockHttpServletRequest request = result.getRequest();
+		MockHttpServletResponse response = result.getResponse();
+		String statements = response.getHeader(SqlStatementStatsConfig.STATEMENTS_HEADER);
+		String rows = response.getHeader(SqlStatementStatsConfig.ROWS_HEADER);
+		if (statements == null || rows == null) {
+			fail("Sin cabeceras " + SqlStatementStatsConfig.STATEMENTS_HEADER + "/" + SqlStatementStatsConfig.ROWS_HEADER
+				+ ": el test necesita foro.sql.stats.header=true");
+		}
+		measured.add(new Measured(request.getMethod() + " " + request.getRequestURI(),
+			Integer.parseInt(statements), Long.parseLong(rows)));
+	}
+
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		MEASURED.set(new ArrayList<>());
+	}
+
+	@Override
+	public void afterEach(ExtensionContext context) {
+		List<Measured> measured = MEASURED.get();
+		MEASURED.remove();
+		QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+		if (budget == null || context.getExecutionException().isPresent()) {
+			return;
+		}
+		if (measured.isEmpty()) {
+			fail("@QueryBudget sin ninguna petición MockMvc que medir");
+		}
+		List<String> overBudget = new ArrayList<>();
+		for (Measured request : measured) {
+			if (request.statements() > budget.statements() || (budget.rows() >= 0 && request.rows() > budget.rows())) {
+				overBudget.add(String.format("%s: %d sentencias, %d filas", request.request(), request.statements(), request.rows()));
+			}
+		}
+		if (!overBudget.isEmpty()) {
+			fail(String.format("Presupuesto superado (máximo %d sentencias, %s filas por petición):%n  %s",
+				budget.statements(), budget.rows() >= 0 ? budget.rows() : "sin límite de",
+				String.join(System.lineSeparator() + "  ", overBudget)));
+		}
+	}
+}